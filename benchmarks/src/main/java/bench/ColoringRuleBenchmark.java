@@ -0,0 +1,89 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package bench;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JPanel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lesson 1's ColoringRule.apply() over every square of large grids, on its own
+ * and as ColorfulSquaresPanel paints it into an off-screen image.
+ *
+ * Lesson 1 lives in the default package, which can't be imported, so both
+ * classes are looked up by name, once, before anything is timed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ColoringRuleBenchmark {
+    private static final int IMAGE_SIZE = 1000;
+
+    @Param({ "10", "100", "1000" })
+    public int squares;
+
+    private MethodHandle apply;
+    private JPanel panel;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        Class<?> rule = Class.forName("ColoringRule");
+        apply = MethodHandles.publicLookup().findStatic(rule, "apply",
+                MethodType.methodType(Color.class, int.class, int.class));
+
+        Constructor<?> constructor = Class.forName("ColorfulSquaresPanel").getDeclaredConstructor(int.class,
+                int.class);
+        constructor.setAccessible(true); // Package private
+        panel = (JPanel) constructor.newInstance(squares, squares);
+        panel.setSize(IMAGE_SIZE, IMAGE_SIZE);
+        image = new BufferedImage(IMAGE_SIZE, IMAGE_SIZE, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public int applyAll() throws Throwable {
+        int sum = 0;
+        for (int row = 0; row < squares; row++) {
+            for (int col = 0; col < squares; col++) {
+                sum += ((Color) apply.invokeExact(row, col)).getRGB();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        panel.paint(graphics);
+        return image;
+    }
+}
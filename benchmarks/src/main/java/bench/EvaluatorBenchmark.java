@@ -0,0 +1,102 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import compile.CompiledExpr;
+import compile.Compiler;
+import compile.JitCompiler;
+import compile.Optimizer;
+import compile.Program;
+import expression.Evaluator;
+import expression.Expr;
+import parse.Parser;
+
+/**
+ * The calculator's step loop, Evaluator.evaluate(), on trees that were parsed
+ * once up front, and the whole of what the = key does: parse then evaluate.
+ * Against them, the same trees compiled to a Program and run on one reused
+ * stack, compiled to JVM bytecode by JitCompiler, and what each compile costs.
+ * optimizeAndEvaluate is the calculator's own path since the Optimizer.
+ *
+ * These expressions have no variables, so once HotSpot inlines a jitted one
+ * it can fold all of it down to a constant. runJitted shows that, which is
+ * the best case rather than the cost of the arithmetic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+    @Param({ "flat", "nested" })
+    public String shape;
+
+    @Param({ "10", "100", "1000" })
+    public int size;
+
+    private String text;
+    private Expr tree;
+    private Program program;
+    private int[] stack;
+    private CompiledExpr jitted;
+
+    @Setup
+    public void setUp() {
+        text = Expressions.of(shape, size);
+        tree = new Parser(text).parse();
+        program = Compiler.compile(tree);
+        stack = program.newStack();
+        jitted = JitCompiler.compile(tree);
+    }
+
+    @Benchmark
+    public String evaluate() {
+        return Evaluator.evaluate(tree);
+    }
+
+    @Benchmark
+    public String parseAndEvaluate() {
+        return Evaluator.evaluate(new Parser(text).parse());
+    }
+
+    @Benchmark
+    public String optimizeAndEvaluate() {
+        return Evaluator.evaluate(Optimizer.optimize(tree));
+    }
+
+    @Benchmark
+    public int runProgram() {
+        return program.run(stack);
+    }
+
+    @Benchmark
+    public Program compile() {
+        return Compiler.compile(tree);
+    }
+
+    @Benchmark
+    public int runJitted() {
+        return jitted.evaluate();
+    }
+
+    @Benchmark
+    public CompiledExpr jitCompile() {
+        return JitCompiler.compile(tree);
+    }
+}
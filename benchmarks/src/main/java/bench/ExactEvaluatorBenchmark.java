@@ -0,0 +1,90 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package bench;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import compile.Compiler;
+import compile.InterpretedExpr;
+import compile.Program;
+import expression.ExactEvaluator;
+import expression.Expr;
+import parse.Parser;
+
+/**
+ * ExactEvaluator against the int evaluators, on a 100 term flat expression
+ * with something in front of it whose result fits an int, needs a long, or
+ * needs a BigInteger. The int evaluators just wrap around, so they are the
+ * cost of the arithmetic with no overflow checks. Run with -prof gc to see
+ * that exactLong allocates nothing while its answer fits in a long.
+ *
+ * The student code this ships with returns straight away, so the int
+ * evaluators do less work for sumTo() and pow() than ExactEvaluator, which
+ * works them out itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExactEvaluatorBenchmark {
+
+    @Param({ "abs(7)", "sumTo(100000)", "pow(7, 40)" })
+    public String first;
+
+    private Expr tree;
+    private Program program;
+    private int[] stack;
+    private InterpretedExpr interpreted;
+
+    @Setup
+    public void setUp() {
+        tree = new Parser(first + "+" + Expressions.flat(100)).parse();
+        program = Compiler.compile(tree);
+        stack = program.newStack();
+        interpreted = new InterpretedExpr(tree);
+    }
+
+    @Benchmark
+    public int runProgram() {
+        return program.run(stack);
+    }
+
+    @Benchmark
+    public int interpret() {
+        return interpreted.evaluate();
+    }
+
+    @Benchmark
+    public long exactLong() {
+        try {
+            return ExactEvaluator.evaluateLong(tree);
+        } catch (ArithmeticException e) {
+            return 0; // pow(7, 40), which only finds out it doesn't fit after working it out in BigInteger
+        }
+    }
+
+    @Benchmark
+    public Number exact() {
+        return ExactEvaluator.evaluate(tree);
+    }
+
+    @Benchmark
+    public BigInteger exactBig() {
+        return ExactEvaluator.evaluateBig(tree);
+    }
+}
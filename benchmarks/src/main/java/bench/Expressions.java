@@ -0,0 +1,45 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package bench;
+
+/**
+ * Calculator inputs for the benchmarks, the same every run.
+ */
+class Expressions {
+    private static final char[] OPERATORS = { '+', '*', '-', '/' };
+
+    /**
+     * "flat" or "nested", of the given size. Parser recurses for every level of
+     * nesting, so a few thousand levels overflow the default stack.
+     */
+    static String of(String shape, int size) {
+        return switch (shape) {
+            case "flat" -> flat(size);
+            case "nested" -> nested(size);
+            default -> throw new IllegalArgumentException("Shape must be flat or nested. Got " + shape);
+        };
+    }
+
+    /**
+     * terms numbers joined by + * - /, with no parentheses: 1+2*3-4/5+6...
+     */
+    static String flat(int terms) {
+        StringBuilder text = new StringBuilder("1");
+        for (int i = 1; i < terms; i++) {
+            text.append(OPERATORS[i % OPERATORS.length]).append(i % 9 + 1);
+        }
+        return text.toString();
+    }
+
+    /**
+     * A small sum wrapped depth times, alternating parentheses and abs() calls:
+     * abs((abs((1+2)*3)+4)*5)...
+     */
+    static String nested(int depth) {
+        String text = "1+2";
+        for (int i = 0; i < depth; i++) {
+            text = (i % 2 == 0 ? "(" + text + ")" : "abs(" + text + ")") + OPERATORS[i % 2] + (i % 9 + 1);
+        }
+        return text;
+    }
+}
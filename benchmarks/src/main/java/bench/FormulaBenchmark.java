@@ -0,0 +1,75 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import compile.Formula;
+
+/**
+ * One formula over columns of (a, b) rows: the whole batch, which splits
+ * across cores once it is big enough, against the same rows on one thread.
+ * hypot(a, b) calls the student's code for every row, a*a + b*b is only
+ * arithmetic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormulaBenchmark {
+
+    @Param({ "hypot(a, b)", "a*a + b*b" })
+    public String formula;
+
+    @Param({ "1000", "1000000" })
+    public int rows;
+
+    private Formula compiled;
+    private int[][] columns;
+    private int[] out;
+
+    @Setup
+    public void setUp() {
+        compiled = Formula.compile(formula, "a", "b");
+        Random random = new Random(1);
+        columns = new int[2][rows];
+        for (int i = 0; i < rows; i++) {
+            // hypot() wants positive inputs
+            columns[0][i] = 1 + random.nextInt(1000);
+            columns[1][i] = 1 + random.nextInt(1000);
+        }
+        out = new int[rows];
+    }
+
+    @Benchmark
+    public int[] batch() {
+        compiled.evaluate(columns, out);
+        return out;
+    }
+
+    @Benchmark
+    public int[] oneThread() {
+        compiled.evaluate(columns, out, 0, rows);
+        return out;
+    }
+
+    @Benchmark
+    public Formula compile() {
+        return Formula.compile(formula, "a", "b");
+    }
+}
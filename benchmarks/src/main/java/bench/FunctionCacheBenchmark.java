@@ -0,0 +1,81 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import expression.Function;
+import expression.FunctionCache;
+
+/**
+ * Batches of CALLS calls to isPrime(), with and without a FunctionCache. The
+ * inputs come from a pool of distinct numbers around a billion. With a pool
+ * smaller than the cache nearly every call is a hit. With a pool much bigger
+ * than the cache, most calls miss and evict.
+ *
+ * The student code this ships with returns straight away, so what this
+ * measures is the cache's own cost per call. A real isPrime() that tries
+ * dividing by every number up to the square root costs far more than a hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FunctionCacheBenchmark {
+    private static final int CALLS = 1024;
+    // Each batch takes the next CALLS inputs from a sequence this long
+    private static final int SEQUENCE = 1 << 20;
+    private static final int SMALLEST_INPUT = 1 << 30;
+    private static final int CAPACITY = 1 << 16;
+
+    @Param({ "false", "true" })
+    public boolean cached;
+
+    @Param({ "1000", "1000000" })
+    public int distinct;
+
+    private int[] inputs;
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        inputs = new int[SEQUENCE];
+        for (int i = 0; i < SEQUENCE; i++) {
+            inputs[i] = SMALLEST_INPUT + random.nextInt(distinct);
+        }
+        Function.setCache(cached ? new FunctionCache(CAPACITY) : null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Function.setCache(null);
+    }
+
+    @Benchmark
+    public int isPrime() {
+        int sum = 0;
+        int start = next;
+        for (int i = start; i < start + CALLS; i++) {
+            sum += Function.IS_PRIME.apply(inputs[i], 0);
+        }
+        next = (start + CALLS) & (SEQUENCE - 1);
+        return sum;
+    }
+}
@@ -0,0 +1,59 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import code.world.Grid;
+import code.world.MazeAlgorithm;
+import code.world.MazeGenerator;
+
+/**
+ * Carving one maze with each MazeAlgorithm, from the 12x12 grids the levels
+ * use up to large ones. One grid is reused for every maze, so only the
+ * carving is timed and not making a new Grid. MazeCache doesn't do this: it
+ * carves each maze into a new grid and hands out copies.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MazeBenchmark {
+
+    @Param({ "DEPTH_FIRST", "KRUSKAL", "PRIM", "WILSON", "BINARY_TREE", "SIDEWINDER" })
+    public MazeAlgorithm algorithm;
+
+    @Param({ "12", "101", "1001" })
+    public int size;
+
+    private Grid grid;
+    private MazeGenerator generator;
+    private long seed = 79;
+
+    @Setup
+    public void setUp() {
+        grid = new Grid(size, size);
+        generator = algorithm.create();
+    }
+
+    @Benchmark
+    public Grid generate() {
+        generator.generate(grid, new Random(seed++));
+        return grid;
+    }
+}
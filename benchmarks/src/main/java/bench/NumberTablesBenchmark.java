@@ -0,0 +1,118 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import numbers.NumberTables;
+import numbers.PrimeSieve;
+
+/**
+ * NUMBERS random numbers below bound through NumberTables' batch isPrime()
+ * and gcf(). Against them are plain Miller-Rabin on each number, trial
+ * division like a student might write, and Euclid's gcf with %. buildSieve
+ * is what the first isPrime() call on new tables pays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberTablesBenchmark {
+    private static final int NUMBERS = 1 << 16;
+
+    @Param({ "1048576", "16777216" })
+    public int bound;
+
+    private NumberTables tables;
+    private int[] as;
+    private int[] bs;
+    private int[] out;
+
+    @Setup
+    public void setUp() {
+        tables = new NumberTables(bound);
+        tables.getSieve().build();
+        Random random = new Random(1);
+        as = new int[NUMBERS];
+        bs = new int[NUMBERS];
+        for (int i = 0; i < NUMBERS; i++) {
+            as[i] = 2 + random.nextInt(bound - 1);
+            bs[i] = 2 + random.nextInt(bound - 1);
+        }
+        out = new int[NUMBERS];
+    }
+
+    @Benchmark
+    public int[] isPrimeSieve() {
+        tables.isPrime(as, out);
+        return out;
+    }
+
+    @Benchmark
+    public int[] isPrimeMillerRabin() {
+        for (int i = 0; i < NUMBERS; i++) {
+            out[i] = NumberTables.isPrimeMillerRabin(as[i]) ? 1 : 0;
+        }
+        return out;
+    }
+
+    @Benchmark
+    public int[] isPrimeTrialDivision() {
+        for (int i = 0; i < NUMBERS; i++) {
+            out[i] = isPrimeByTrialDivision(as[i]) ? 1 : 0;
+        }
+        return out;
+    }
+
+    @Benchmark
+    public int[] gcfBinary() {
+        tables.gcf(as, bs, out);
+        return out;
+    }
+
+    @Benchmark
+    public int[] gcfEuclid() {
+        for (int i = 0; i < NUMBERS; i++) {
+            int a = as[i];
+            int b = bs[i];
+            while (b != 0) {
+                int rest = a % b;
+                a = b;
+                b = rest;
+            }
+            out[i] = a;
+        }
+        return out;
+    }
+
+    @Benchmark
+    public PrimeSieve buildSieve() {
+        PrimeSieve sieve = new PrimeSieve(bound);
+        sieve.build();
+        return sieve;
+    }
+
+    private static boolean isPrimeByTrialDivision(int n) {
+        for (int d = 2; d <= n / d; d++) {
+            if (n % d == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,55 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import expression.Expr;
+import parse.Parser;
+
+/**
+ * Parser.parse() on expressions that grow in length (flat: more terms, no
+ * parentheses) and in depth (nested: more parentheses and function calls
+ * around a small sum).
+ *
+ * Parsing is linear, so each tenfold step in size should take about ten
+ * times as long, for both shapes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({ "flat", "nested" })
+    public String shape;
+
+    @Param({ "10", "100", "1000" })
+    public int size;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        text = Expressions.of(shape, size);
+    }
+
+    @Benchmark
+    public Expr parse() {
+        return new Parser(text).parse();
+    }
+}
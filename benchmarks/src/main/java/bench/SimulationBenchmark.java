@@ -0,0 +1,100 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import code.Robot;
+import code.world.Grid;
+import code.world.MazeAlgorithm;
+import code.world.Policy;
+import code.world.Simulation;
+import code.world.SimulationResult;
+
+/**
+ * How fast the world moves a roomba: one update() and step(), the work GridWorld
+ * and the tournament do for every step, and whole runs to a rescue.
+ *
+ * The step benchmark uses a maze with nobody in it, so the run never ends
+ * however many steps JMH asks for. The policy follows the left-hand wall and
+ * costs next to nothing, so the time is the world's own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+    private static final long SEED = 79;
+    private static final int MAX_STEPS = 1_000_000;
+
+    @Param({ "12", "101", "1001" })
+    public int size;
+
+    private Grid maze;
+    private Simulation walking;
+
+    @Setup(Level.Trial)
+    public void generateMaze() {
+        maze = Simulation.generateMaze(SEED, size, MazeAlgorithm.DEPTH_FIRST);
+    }
+
+    @Setup(Level.Iteration)
+    public void startWalking() {
+        walking = new Simulation(maze.copy(), new int[0][], new WallFollower());
+    }
+
+    @Benchmark
+    public int step() {
+        walking.update();
+        walking.step();
+        return walking.getRoombaX();
+    }
+
+    // The far corner of the maze, which the wall follower always reaches.
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public SimulationResult runToRescue() {
+        int corner = size % 2 == 0 ? size - 3 : size - 2;
+        Simulation simulation = new Simulation(maze.copy(), new int[][] { { corner, corner } }, new WallFollower());
+        return simulation.run(MAX_STEPS);
+    }
+
+    /**
+     * Keeps a hand on the left wall, one command per step.
+     */
+    public static class WallFollower implements Policy {
+        private boolean turnedLeft = false;
+
+        @Override
+        public void execute(Robot robot) {
+            if (robot.isPersonDetected()) {
+                robot.signalForHelp();
+            } else if (turnedLeft) {
+                turnedLeft = false;
+                robot.moveForward();
+            } else if (!robot.isLeftSensorTripped()) {
+                turnedLeft = true;
+                robot.rotateLeft();
+            } else if (!robot.isFrontSensorTripped()) {
+                robot.moveForward();
+            } else {
+                robot.rotateRight();
+            }
+        }
+    }
+}
@@ -2,14 +2,16 @@
 
 package code;
 import code.world.GridWorld;
+import code.world.MazeAlgorithm;
 
 public class Level2 {
 
     private static final String TITLE = "Level 2";
     private static final int SEED = 2344;
     private static final int[][] HUMAN_POSITION = new int[][] { { 3, 7 } };
+    private static final MazeAlgorithm MAZE_ALGORITHM = MazeAlgorithm.DEPTH_FIRST;
 
     public static void main(String args[]) {
-        new GridWorld(TITLE, SEED, HUMAN_POSITION);
+        new GridWorld(TITLE, SEED, HUMAN_POSITION, MAZE_ALGORITHM);
     }
 }
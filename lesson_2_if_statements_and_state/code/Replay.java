@@ -0,0 +1,47 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import code.world.GridWorld;
+import code.world.MazeAlgorithm;
+import code.world.Simulation;
+import code.world.SimulationResult;
+import code.world.Trace;
+import code.world.TraceRecorder;
+import code.world.TraceReplayer;
+
+/**
+ * Records StudentPolicy into a trace file, or plays a trace file back.
+ *
+ *   java code.Replay record SEED HUMAN_X HUMAN_Y MAX_STEPS FILE
+ *   java code.Replay view FILE [SPEED]
+ */
+public class Replay {
+
+    public static void main(String args[]) throws IOException {
+        if (args.length >= 6 && args[0].equals("record")) {
+            long seed = Long.parseLong(args[1]);
+            int[][] humanPosition = new int[][] { { Integer.parseInt(args[2]), Integer.parseInt(args[3]) } };
+            int maxSteps = Integer.parseInt(args[4]);
+
+            Simulation simulation = new Simulation(seed, humanPosition, new StudentPolicy());
+            TraceRecorder recorder = new TraceRecorder(seed, Simulation.GRID_SIZE, MazeAlgorithm.DEPTH_FIRST,
+                    humanPosition);
+            simulation.setTraceRecorder(recorder);
+            SimulationResult result = simulation.run(maxSteps);
+            recorder.toTrace().write(Path.of(args[5]));
+            System.out.println(result);
+            System.out.println("Recorded " + recorder.getNumSteps() + " steps to " + args[5]);
+        } else if (args.length >= 2 && args[0].equals("view")) {
+            Trace trace = Trace.read(Path.of(args[1]));
+            double speed = args.length >= 3 ? Double.parseDouble(args[2]) : 1.0;
+            new GridWorld("Replay of seed " + trace.getSeed(), new TraceReplayer(trace), speed);
+        } else {
+            System.out.println("Usage: java code.Replay record SEED HUMAN_X HUMAN_Y MAX_STEPS FILE");
+            System.out.println("       java code.Replay view FILE [SPEED]");
+        }
+    }
+}
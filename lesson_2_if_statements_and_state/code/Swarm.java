@@ -0,0 +1,36 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code;
+
+import code.world.Grid;
+import code.world.MazeAlgorithm;
+import code.world.MultiRobotSimulation;
+import code.world.Policy;
+import code.world.Simulation;
+import code.world.SimulationResult;
+
+public class Swarm {
+
+    private static final int GRID_SIZE = 201;
+    private static final int NUM_ROBOTS = 300;
+    private static final long SEED = 79;
+    private static final int[][] HUMAN_POSITION = new int[][] { { 199, 199 } };
+    private static final int MAX_STEPS = 20000;
+
+    public static void main(String args[]) {
+        Grid maze = Simulation.generateMaze(SEED, GRID_SIZE, MazeAlgorithm.DEPTH_FIRST);
+        Policy[] policies = new Policy[NUM_ROBOTS];
+        for (int i = 0; i < NUM_ROBOTS; i++) {
+            policies[i] = new StudentPolicy();
+        }
+        MultiRobotSimulation swarm = new MultiRobotSimulation(maze, HUMAN_POSITION, policies,
+                MultiRobotSimulation.spreadStartPositions(maze, NUM_ROBOTS));
+
+        long start = System.nanoTime();
+        SimulationResult result = swarm.run(MAX_STEPS);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println(result);
+        System.out.println(NUM_ROBOTS + " robots ran " + swarm.getNumSteps() + " ticks in " + elapsedMs + "ms.");
+    }
+}
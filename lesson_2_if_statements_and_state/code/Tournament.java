@@ -0,0 +1,38 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import code.world.MazeCache;
+import code.world.Policy;
+import code.world.PolicyStats;
+import code.world.TournamentRunner;
+
+public class Tournament {
+
+    private static final int NUM_MAZES = 10000;
+    private static final long TOURNAMENT_SEED = 79;
+    private static final int MAX_STEPS = 2000;
+    private static final long POLICY_TIME_BUDGET_NANOS = 50_000_000; // 50ms per step
+    private static final Path MAZE_CACHE_DIRECTORY = Path.of("maze_cache");
+    private static final List<Class<? extends Policy>> POLICIES = List.of(StudentPolicy.class);
+
+    public static void main(String args[]) {
+        int numMazes = args.length > 0 ? Integer.parseInt(args[0]) : NUM_MAZES;
+        long start = System.nanoTime();
+        TournamentRunner runner = TournamentRunner.withRandomMazes(POLICIES, numMazes, TOURNAMENT_SEED, MAX_STEPS);
+        MazeCache mazeCache = new MazeCache(numMazes, MAZE_CACHE_DIRECTORY);
+        runner.setMazeCache(mazeCache);
+        runner.setPolicyTimeBudget(POLICY_TIME_BUDGET_NANOS);
+        List<PolicyStats> stats = runner.run();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        for (PolicyStats s : stats) {
+            System.out.println(s);
+        }
+        System.out.println(mazeCache);
+        System.out.println("Ran " + numMazes + " mazes per policy in " + elapsedMs + "ms.");
+    }
+}
@@ -0,0 +1,109 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.bench;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Stack;
+
+import code.world.DepthFirstMazeGenerator;
+import code.world.Grid;
+
+/**
+ * Times the original Stack<Point> maze generator against
+ * DepthFirstMazeGenerator on growing grid sizes, and checks that both carve the
+ * same maze for the same seed.
+ *
+ * Run with: java code.bench.MazeGenerationBenchmark
+ */
+public class MazeGenerationBenchmark {
+
+    private static final int[] GRID_SIZES = { 12, 64, 256, 1000, 2000 };
+    private static final long SEED = 79;
+    private static final long TARGET_NANOS_PER_SIZE = 2_000_000_000L;
+
+    public static void main(String args[]) {
+        System.out.printf("%8s %14s %14s %8s%n", "size", "legacy ms", "iterative ms", "speedup");
+        for (int size : GRID_SIZES) {
+            checkSameMaze(size);
+            double legacyMs = time(size, true);
+            double iterativeMs = time(size, false);
+            System.out.printf("%8d %14.3f %14.3f %7.2fx%n", size, legacyMs, iterativeMs, legacyMs / iterativeMs);
+        }
+    }
+
+    // Average milliseconds per maze, after a warm up pass.
+    private static double time(int size, boolean legacy) {
+        Grid grid = new Grid(size, size);
+        DepthFirstMazeGenerator generator = new DepthFirstMazeGenerator();
+        long budget = TARGET_NANOS_PER_SIZE / 2;
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            int runs = 0;
+            while (System.nanoTime() - start < budget || runs < 3) {
+                if (legacy) {
+                    generateLegacy(grid, new Random(SEED + runs));
+                } else {
+                    generator.generate(grid, new Random(SEED + runs));
+                }
+                runs++;
+            }
+            if (round == 1) {
+                return (System.nanoTime() - start) / 1e6 / runs;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static void checkSameMaze(int size) {
+        Grid legacy = new Grid(size, size);
+        Grid iterative = new Grid(size, size);
+        generateLegacy(legacy, new Random(SEED));
+        new DepthFirstMazeGenerator().generate(iterative, new Random(SEED));
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (legacy.isWall(x, y) != iterative.isWall(x, y)) {
+                    throw new IllegalStateException("Generators disagree at (" + x + ", " + y + ") on size " + size);
+                }
+            }
+        }
+    }
+
+    // The generator GridWorld used to have, kept here as the baseline.
+    private static void generateLegacy(Grid grid, Random random) {
+        grid.fillWalls();
+
+        Stack<Point> stack = new Stack<>();
+        stack.push(new Point(1, 1));
+        grid.setWall(1, 1, false);
+
+        while (!stack.isEmpty()) {
+            Point current = stack.peek();
+            Point next = getNextCellLegacy(grid, current, random);
+            if (next != null) {
+                grid.setWall(next.x, next.y, false);
+                stack.push(next);
+            } else {
+                stack.pop();
+            }
+        }
+    }
+
+    private static Point getNextCellLegacy(Grid grid, Point current, Random random) {
+        int[][] directions = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } }; // East, West, North, South
+        Collections.shuffle(Arrays.asList(directions), random);
+
+        for (int[] direction : directions) {
+            int nx = current.x + direction[0] * 2;
+            int ny = current.y + direction[1] * 2;
+
+            if (nx >= 1 && nx < grid.getWidth() - 1 && ny >= 1 && ny < grid.getHeight() - 1 && grid.isWall(nx, ny)) {
+                grid.setWall(current.x + direction[0], current.y + direction[1], false);
+                return new Point(nx, ny);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.Random;
+
+/**
+ * For every cell, knocks down either its north or its east wall at random.
+ * Cells on the top row can only go east and cells on the right column can only
+ * go north. It runs in linear time and each row of cells only depends on itself.
+ */
+public class BinaryTreeMazeGenerator implements RowMazeGenerator {
+
+    @Override
+    public void generateRows(int width, int height, Random random, RowSink sink) {
+        int cellsAcross = (width - 1) / 2;
+        int cellsUp = (height - 1) / 2;
+        long[] cellRow = RowMazeGenerator.newRow(width);
+        long[] northRow = RowMazeGenerator.newRow(width);
+
+        RowMazeGenerator.fillRowWalls(cellRow, width);
+        sink.acceptRow(0, cellRow); // Bottom border
+
+        for (int cy = 0; cy < cellsUp; cy++) {
+            RowMazeGenerator.fillRowWalls(cellRow, width);
+            RowMazeGenerator.fillRowWalls(northRow, width);
+            for (int cx = 0; cx < cellsAcross; cx++) {
+                int x = 2 * cx + 1;
+                RowMazeGenerator.clearWall(cellRow, x);
+
+                boolean canGoNorth = cy < cellsUp - 1;
+                boolean canGoEast = cx < cellsAcross - 1;
+                if (canGoNorth && (!canGoEast || random.nextBoolean())) {
+                    RowMazeGenerator.clearWall(northRow, x);
+                } else if (canGoEast) {
+                    RowMazeGenerator.clearWall(cellRow, x + 1);
+                }
+            }
+            sink.acceptRow(2 * cy + 1, cellRow);
+            sink.acceptRow(2 * cy + 2, northRow);
+        }
+
+        // Whatever is left above the last row of cells is wall
+        RowMazeGenerator.fillRowWalls(cellRow, width);
+        for (int y = 2 * cellsUp + 1; y < height; y++) {
+            sink.acceptRow(y, cellRow);
+        }
+    }
+}
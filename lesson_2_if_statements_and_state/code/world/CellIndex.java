@@ -0,0 +1,61 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.Arrays;
+
+/**
+ * A map from cell index to a small id (a robot or a victim) using open
+ * addressing over two int arrays. It is sized for the number of ids it will
+ * hold rather than the size of the maze, and lookups never allocate.
+ */
+class CellIndex {
+    private final int[] keys;
+    private final int[] values;
+    private final int mask;
+    private final int shift;
+
+    CellIndex(int capacity) {
+        // At most half full
+        int size = Integer.highestOneBit(Math.max(2, capacity * 2) * 2 - 1);
+        keys = new int[size];
+        values = new int[size];
+        mask = size - 1;
+        shift = Integer.SIZE - Integer.numberOfTrailingZeros(size);
+        clear();
+    }
+
+    void clear() {
+        Arrays.fill(keys, -1);
+    }
+
+    // Returns the id now stored for the cell, which is the old one if there was one.
+    int putIfAbsent(int cell, int id) {
+        int slot = slot(cell);
+        while (keys[slot] >= 0) {
+            if (keys[slot] == cell) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = cell;
+        values[slot] = id;
+        return id;
+    }
+
+    // The id stored for the cell, or -1.
+    int get(int cell) {
+        int slot = slot(cell);
+        while (keys[slot] >= 0) {
+            if (keys[slot] == cell) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(int cell) {
+        return (cell * 0x9E3779B9) >>> shift;
+    }
+}
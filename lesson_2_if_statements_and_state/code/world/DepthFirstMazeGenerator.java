@@ -0,0 +1,79 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.Random;
+
+/**
+ * Carves a maze with a randomized depth-first search, starting from the
+ * bottom-left cell (1, 1). Maze cells sit on odd coordinates and the walls
+ * between them are knocked down as the search moves.
+ *
+ * The search keeps its stack as packed cell indices in an int[] and shuffles
+ * one reused direction array in place, so apart from the stack it does not
+ * allocate while it runs. It draws from the Random in exactly the same order as
+ * Collections.shuffle on a fresh {East, West, North, South} list, so a seed
+ * always gives the same maze it always has.
+ */
+public class DepthFirstMazeGenerator implements MazeGenerator {
+    // East, West, North, South
+    private static final int[] DX = { 1, -1, 0, 0 };
+    private static final int[] DY = { 0, 0, 1, -1 };
+
+    private final int[] order = new int[4];
+
+    @Override
+    public void generate(Grid grid, Random random) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        grid.fillWalls(); // Initialize all cells as walls
+
+        // Every maze cell can be on the stack at most once
+        int[] stack = new int[Math.max(1, ((width - 1) / 2) * ((height - 1) / 2))];
+        int size = 0;
+
+        // Start DFS from the bottom-left corner
+        stack[size++] = grid.index(1, 1);
+        grid.setWall(1, 1, false);
+
+        while (size > 0) {
+            int current = stack[size - 1];
+            int x = current % width;
+            int y = current / width;
+
+            shuffleDirections(random);
+
+            int next = -1;
+            for (int d : order) {
+                int nx = x + DX[d] * 2; // Move two steps in the direction
+                int ny = y + DY[d] * 2;
+
+                if (nx >= 1 && nx < width - 1 && ny >= 1 && ny < height - 1 && grid.isWall(nx, ny)) {
+                    grid.setWall(x + DX[d], y + DY[d], false); // Knock down the wall between cells
+                    grid.setWall(nx, ny, false);
+                    next = grid.index(nx, ny);
+                    break;
+                }
+            }
+
+            if (next >= 0) {
+                stack[size++] = next;
+            } else {
+                size--;
+            }
+        }
+    }
+
+    // Same swaps, in the same order, as Collections.shuffle(list, random) on a 4 element list.
+    private void shuffleDirections(Random random) {
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        for (int i = order.length; i > 1; i--) {
+            int j = random.nextInt(i);
+            int tmp = order[i - 1];
+            order[i - 1] = order[j];
+            order[j] = tmp;
+        }
+    }
+}
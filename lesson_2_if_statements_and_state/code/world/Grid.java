@@ -0,0 +1,125 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+/**
+ * A maze packed into a long[] bitset. Every cell takes two bits, a wall bit and
+ * a person bit, and cells are stored row by row (index = y * width + x). A
+ * 4096x4096 maze fits in 4MB instead of an array of arrays of enum references.
+ */
+public class Grid {
+    public static final int MAX_SIZE = 4096;
+
+    private static final int BITS_PER_CELL = 2;
+    private static final int CELLS_PER_WORD = Long.SIZE / BITS_PER_CELL;
+    private static final int WALL_BIT = 0;
+    private static final int PERSON_BIT = 1;
+    private static final long ALL_WALLS = 0x5555555555555555L; // The wall bit of every cell in a word
+
+    private final int width;
+    private final int height;
+    private final long[] bits;
+
+    public Grid(int width, int height) {
+        if (width < 1 || width > MAX_SIZE || height < 1 || height > MAX_SIZE) {
+            throw new IllegalArgumentException(
+                    "Grid size must be between 1 and " + MAX_SIZE + ". Got " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.bits = new long[wordsFor(width, height)];
+    }
+
+    // Copies bits that were saved earlier, see MazeCache.
+    Grid(int width, int height, long[] bits) {
+        this(width, height);
+        if (bits.length != this.bits.length) {
+            throw new IllegalArgumentException("Expected " + this.bits.length + " words. Got " + bits.length);
+        }
+        System.arraycopy(bits, 0, this.bits, 0, bits.length);
+    }
+
+    public Grid copy() {
+        return new Grid(width, height, bits);
+    }
+
+    static int wordsFor(int width, int height) {
+        return (width * height + CELLS_PER_WORD - 1) / CELLS_PER_WORD;
+    }
+
+    long[] getBits() {
+        return bits;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /**
+     * Turns every cell into a wall and removes every person.
+     */
+    public void fillWalls() {
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = ALL_WALLS;
+        }
+        // Clear the unused cells past the end of the last word
+        int usedCells = width * height - (bits.length - 1) * CELLS_PER_WORD;
+        if (usedCells < CELLS_PER_WORD) {
+            bits[bits.length - 1] &= (1L << (usedCells * BITS_PER_CELL)) - 1;
+        }
+    }
+
+    // Cells outside the grid are not walls, same as the sensors have always seen them.
+    public boolean isWall(int x, int y) {
+        return contains(x, y) && getBit(index(x, y), WALL_BIT);
+    }
+
+    // True when the roomba could stand on this cell.
+    public boolean isOpen(int x, int y) {
+        return contains(x, y) && !getBit(index(x, y), WALL_BIT);
+    }
+
+    public boolean isPerson(int x, int y) {
+        return contains(x, y) && getBit(index(x, y), PERSON_BIT);
+    }
+
+    public void setWall(int x, int y, boolean wall) {
+        setBit(index(x, y), WALL_BIT, wall);
+    }
+
+    /**
+     * Places a person on a cell. A person always stands on open floor, so this
+     * knocks down any wall on that cell.
+     */
+    public void setPerson(int x, int y) {
+        int i = index(x, y);
+        setBit(i, WALL_BIT, false);
+        setBit(i, PERSON_BIT, true);
+    }
+
+    private boolean getBit(int cell, int bit) {
+        int offset = (cell % CELLS_PER_WORD) * BITS_PER_CELL + bit;
+        return (bits[cell / CELLS_PER_WORD] & (1L << offset)) != 0;
+    }
+
+    private void setBit(int cell, int bit, boolean value) {
+        int offset = (cell % CELLS_PER_WORD) * BITS_PER_CELL + bit;
+        if (value) {
+            bits[cell / CELLS_PER_WORD] |= 1L << offset;
+        } else {
+            bits[cell / CELLS_PER_WORD] &= ~(1L << offset);
+        }
+    }
+}
@@ -9,114 +9,93 @@ import code.StudentPolicy;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Optional;
-import java.util.Random;
-import java.util.Stack;
+import java.awt.image.BufferedImage;
 
 public class GridWorld extends JFrame {
-    private static final int GRID_SIZE = 12;
-    private static final int CELL_SIZE = 40; // Each cell is 40x40 pixels
-    private static final int UPDATE_ENV_INTERVAL = 50;
-    private static final int POLICY_INTERVAL = 500;
+    private static final int CELL_SIZE = 40; // Each cell is 40x40 pixels, unless the maze is too big for that
+    private static final int MAX_MAZE_PIXELS = 1000; // Bigger mazes get smaller cells so the window still fits
+    private static final int MIN_BORDERED_CELL_SIZE = 4; // Cells smaller than this are drawn without a border
+    private static final int FRAME_INTERVAL = 16; // About 60 frames per second
+    private static final int POLICY_INTERVAL = 500; // The normal step rate, and one tick of the rescue clock
+    private static final double MIN_STEPS_PER_SECOND = 0.25;
+    private static final double MAX_STEPS_PER_SECOND = 1024; // One speed up past this runs unlimited
     private static final int FRAME_WIDTH_EXTRA = 80;
     private static final int FRAME_HEIGHT_EXTRA = 40;
     private static final int TEXT_OFFSET_Y = 10;
     private static final int TEXT_OFFSET_X = 120;
-    private long randomSeed; // Fixed seed for reproducibility
-    private CellState[][] grid;
-    private int[][] humanPosition;
-    private int roombaX = 1; // Start at bottom left, leave space for a border
-    private int roombaY = 1;
-    private Direction direction = Direction.NORTH;
-    private Random random;
-    private RobotImpl robot;
+    private Simulation simulation;
     private String title;
-    private Policy policy = new StudentPolicy();
-    private int numSteps = 0;
+    private boolean paused;
+    private TraceReplayer replayer; // Only set when showing a recorded trace
+    private int cellSize;
+    private double stepsPerSecond = 1000.0 / POLICY_INTERVAL;
+    private SimulationLoop loop; // Only set when running a policy live
+    private Timer replayTimer; // Only set when showing a recorded trace
 
-    // Sensor and detection states for display
-    private boolean leftSensorTripped, rightSensorTripped, frontSensorTripped, backSensorTripped, personDetected,
-            signaledForHelp, foundHuman, paused;
-
-    enum CellState {
-        FREE, WALL, PERSON
+    public GridWorld(String title, long randomSeed, int[][] humanPosition) {
+        this(title, new Simulation(randomSeed, humanPosition, new StudentPolicy()));
     }
 
-    enum Direction {
-        NORTH, EAST, SOUTH, WEST
+    public GridWorld(String title, long randomSeed, int[][] humanPosition, MazeAlgorithm mazeAlgorithm) {
+        this(title, new Simulation(randomSeed, humanPosition, new StudentPolicy(), Simulation.GRID_SIZE,
+                mazeAlgorithm));
     }
 
-    public GridWorld(String title, long randomSeed, int[][] humanPosition) {
+    /**
+     * Runs the simulation on its own thread, see SimulationLoop, and redraws
+     * the latest snapshot of it about 60 times a second. The simulation must
+     * not be touched from anywhere else once the window is open.
+     */
+    public GridWorld(String title, Simulation simulation) {
         this.title = title;
-        this.randomSeed = randomSeed;
-        this.humanPosition = humanPosition;
-        random = new Random(this.randomSeed); // Random generator with seed
+        this.simulation = simulation;
 
-        robot = new RobotImpl();
-
-        grid = new CellState[GRID_SIZE][GRID_SIZE];
-        generateMaze(humanPosition);
-        setupFrame();
-        new Timer(UPDATE_ENV_INTERVAL, e -> update()).start();
-        new Timer(POLICY_INTERVAL, e -> runPolicy()).start();
+        loop = new SimulationLoop(simulation, stepsPerSecond);
+        GridPanel panel = setupFrame();
+        loop.start();
+        new Timer(FRAME_INTERVAL, e -> panel.repaintChanges(loop.getSnapshot())).start();
     }
 
-    private void generateMaze(int[][] humanPosition) {
-        for (int i = 0; i < GRID_SIZE; i++) {
-            for (int j = 0; j < GRID_SIZE; j++) {
-                grid[i][j] = CellState.WALL; // Initialize all cells as walls
-            }
-        }
-
-        // Start DFS from the bottom-left corner
-        Stack<Point> stack = new Stack<>();
-        stack.push(new Point(1, 1));
-        grid[1][1] = CellState.FREE;
-
-        while (!stack.isEmpty()) {
-            Point current = stack.peek();
-            Point next = getNextCell(current);
-            if (next != null) {
-                grid[next.x][next.y] = CellState.FREE;
-                stack.push(next);
-            } else {
-                stack.pop();
-            }
-        }
-
-        grid[humanPosition[0][0]][humanPosition[0][1]] = CellState.PERSON;
-    }
-
-    private Point getNextCell(Point current) {
-        int[][] directions = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } }; // East, West, North, South
-        Collections.shuffle(Arrays.asList(directions), random); // Randomize directions
-
-        for (int[] direction : directions) {
-            int nx = current.x + direction[0] * 2; // Move two steps in the direction
-            int ny = current.y + direction[1] * 2; // Move two steps in the direction
-
-            if (nx >= 1 && nx < GRID_SIZE - 1 && ny >= 1 && ny < GRID_SIZE - 1 && grid[nx][ny] == CellState.WALL) {
-                grid[current.x + direction[0]][current.y + direction[1]] = CellState.FREE; // Knock down the wall
-                                                                                           // between cells
-                return new Point(nx, ny);
+    /**
+     * Plays back a recorded trace instead of running a policy. speed multiplies
+     * the normal step rate. Left/right arrows step back and forward, page up/down
+     * jump 100 steps and home/end jump to the start or the end.
+     */
+    public GridWorld(String title, TraceReplayer replayer, double speed) {
+        this.title = title;
+        this.simulation = replayer.getSimulation();
+        this.replayer = replayer;
+
+        this.stepsPerSecond *= speed;
+
+        // Replays are cheap, so they stay on the Swing thread and are drawn as soon as they change
+        GridPanel panel = setupFrame();
+        simulation.addObserver(s -> panel.repaintChanges(SimulationSnapshot.of(s)));
+        setupReplayKeyBindings(panel);
+        panel.repaintChanges(SimulationSnapshot.of(simulation));
+        replayTimer = new Timer(stepDelay(), e -> {
+            if (!paused) {
+                replayer.stepForward();
             }
-        }
-        return null;
+        });
+        replayTimer.start();
     }
 
-    private void setupFrame() {
+    private GridPanel setupFrame() {
+        int gridSize = simulation.getGridSize();
+        cellSize = Math.max(1, Math.min(CELL_SIZE, MAX_MAZE_PIXELS / gridSize));
         setTitle("Grid World");
-        setSize(GRID_SIZE * CELL_SIZE + FRAME_WIDTH_EXTRA, GRID_SIZE * CELL_SIZE + FRAME_HEIGHT_EXTRA);
+        setSize(gridSize * cellSize + FRAME_WIDTH_EXTRA, gridSize * cellSize + FRAME_HEIGHT_EXTRA);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         GridPanel panel = new GridPanel();
         getContentPane().add(panel);
         setupKeyBindings(panel);
+        setupSpeedKeyBindings(panel);
         setVisible(true);
+        return panel;
     }
 
-    private void setupKeyBindings(JPanel panel) {
+    private void setupKeyBindings(GridPanel panel) {
         // Define the key stroke for the space bar
         KeyStroke spaceKeyStroke = KeyStroke.getKeyStroke(KeyEvent.VK_SPACE, 0);
 
@@ -125,6 +104,10 @@ public class GridWorld extends JFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 paused = !paused;
+                if (loop != null) {
+                    loop.setPaused(paused);
+                }
+                panel.repaintHud();
             }
         };
 
@@ -139,126 +122,85 @@ public class GridWorld extends JFrame {
         actionMap.put("spaceAction", spaceAction);
     }
 
-    private void update() {
-        boolean[] sensorReadings = simulateSensors();
-        personDetected = grid[roombaX][roombaY] == CellState.PERSON;
-        leftSensorTripped = sensorReadings[0];
-        rightSensorTripped = sensorReadings[1];
-        frontSensorTripped = sensorReadings[2];
-        backSensorTripped = sensorReadings[3];
-        robot.updateSensors(leftSensorTripped, rightSensorTripped, frontSensorTripped, backSensorTripped, personDetected);
-        repaint();
+    private void setupReplayKeyBindings(JPanel panel) {
+        bindKey(panel, KeyEvent.VK_RIGHT, "stepForward", () -> replayer.seek(replayer.getStep() + 1));
+        bindKey(panel, KeyEvent.VK_LEFT, "stepBackward", () -> replayer.stepBackward());
+        bindKey(panel, KeyEvent.VK_PAGE_UP, "jumpForward", () -> replayer.seek(replayer.getStep() + 100));
+        bindKey(panel, KeyEvent.VK_PAGE_DOWN, "jumpBackward", () -> replayer.seek(replayer.getStep() - 100));
+        bindKey(panel, KeyEvent.VK_HOME, "jumpToStart", () -> replayer.seek(0));
+        bindKey(panel, KeyEvent.VK_END, "jumpToEnd", () -> replayer.seek(replayer.getNumSteps()));
     }
 
-    private void runPolicy() {
-        if (paused) {
-            return;
-        }
-
-        policy.execute(robot);
-
-        if (!foundHuman) {
-            numSteps++;
-        }
-
-        boolean atHumanPos = roombaX == humanPosition[0][0] && roombaY == humanPosition[0][1];
-        if (robot.didSignalForHelp() && !signaledForHelp && atHumanPos) {
-            foundHuman = true;
-        }
-        signaledForHelp = robot.didSignalForHelp();
-
-        final Optional<RobotImpl.CommandType> command = robot.pop();
-        if (command.isEmpty()) {
-            return;
-        }
-
-        switch (command.get()) {
-            case MOVE_FORWARD:
-                moveForward();
-                break;
-            case ROTATE_LEFT:
-                rotateLeft();
-                break;
-            case ROTATE_RIGHT:
-                rotateRight();
-                break;
-            default:
-                throw new RuntimeException("Unexpected case.");
-        }
+    // + and - double or halve the step rate, next to the spacebar pause.
+    private void setupSpeedKeyBindings(GridPanel panel) {
+        Runnable faster = () -> changeSpeed(panel, stepsPerSecond >= MAX_STEPS_PER_SECOND ? SimulationLoop.UNLIMITED
+                : stepsPerSecond * 2);
+        Runnable slower = () -> changeSpeed(panel, stepsPerSecond == SimulationLoop.UNLIMITED ? MAX_STEPS_PER_SECOND
+                : Math.max(MIN_STEPS_PER_SECOND, stepsPerSecond / 2));
+        bindKey(panel, KeyEvent.VK_EQUALS, "faster", faster); // The + key without shift
+        bindKey(panel, KeyEvent.VK_ADD, "fasterKeypad", faster);
+        bindKey(panel, KeyEvent.VK_MINUS, "slower", slower);
+        bindKey(panel, KeyEvent.VK_SUBTRACT, "slowerKeypad", slower);
     }
 
-    private boolean[] simulateSensors() {
-        boolean leftSensorTripped = false, rightSensorTripped = false, frontSensorTripped = false, backSensorTripped = false;
-        switch (direction) {
-            case NORTH:
-                leftSensorTripped = isWall(roombaX - 1, roombaY);
-                rightSensorTripped = isWall(roombaX + 1, roombaY);
-                frontSensorTripped = isWall(roombaX, roombaY + 1);
-                backSensorTripped = isWall(roombaX, roombaY - 1);
-                break;
-            case EAST:
-                leftSensorTripped = isWall(roombaX, roombaY + 1);
-                rightSensorTripped = isWall(roombaX, roombaY - 1);
-                frontSensorTripped = isWall(roombaX + 1, roombaY);
-                backSensorTripped = isWall(roombaX - 1, roombaY);
-                break;
-            case SOUTH:
-                leftSensorTripped = isWall(roombaX + 1, roombaY);
-                rightSensorTripped = isWall(roombaX - 1, roombaY);
-                frontSensorTripped = isWall(roombaX, roombaY - 1);
-                backSensorTripped = isWall(roombaX, roombaY + 1);
-                break;
-            case WEST:
-                leftSensorTripped = isWall(roombaX, roombaY - 1);
-                rightSensorTripped = isWall(roombaX, roombaY + 1);
-                frontSensorTripped = isWall(roombaX - 1, roombaY);
-                backSensorTripped = isWall(roombaX + 1, roombaY);
-                break;
+    private void changeSpeed(GridPanel panel, double stepsPerSecond) {
+        this.stepsPerSecond = stepsPerSecond;
+        if (loop != null) {
+            loop.setStepsPerSecond(stepsPerSecond);
+        }
+        if (replayTimer != null) {
+            replayTimer.setDelay(stepDelay());
         }
-        return new boolean[] { leftSensorTripped, rightSensorTripped, frontSensorTripped, backSensorTripped };
+        panel.repaintHud();
     }
 
-    private boolean isWall(int x, int y) {
-        return x >= 0 && x < GRID_SIZE && y >= 0 && y < GRID_SIZE && grid[x][y] == CellState.WALL;
+    // Swing timers tick at most once a millisecond, which is as fast as a replay goes.
+    private int stepDelay() {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, 1000 / stepsPerSecond));
     }
 
-    private void moveForward() {
-        int nextX = roombaX;
-        int nextY = roombaY;
-        switch (direction) {
-            case NORTH -> nextY++;
-            case EAST -> nextX++;
-            case SOUTH -> nextY--;
-            case WEST -> nextX--;
-        }
-        if (nextX >= 0 && nextX < GRID_SIZE && nextY >= 0 && nextY < GRID_SIZE
-                && grid[nextX][nextY] != CellState.WALL) {
-            roombaX = nextX;
-            roombaY = nextY;
+    private String speedText() {
+        if (stepsPerSecond == SimulationLoop.UNLIMITED) {
+            return "max";
         }
+        return (stepsPerSecond < 1 ? String.valueOf(stepsPerSecond) : String.valueOf((int) stepsPerSecond))
+                + " steps/s";
     }
 
-    private void rotateLeft() {
-        direction = switch (direction) {
-            case NORTH -> Direction.WEST;
-            case WEST -> Direction.SOUTH;
-            case SOUTH -> Direction.EAST;
-            case EAST -> Direction.NORTH;
-        };
-    }
-
-    private void rotateRight() {
-        direction = switch (direction) {
-            case NORTH -> Direction.EAST;
-            case EAST -> Direction.SOUTH;
-            case SOUTH -> Direction.WEST;
-            case WEST -> Direction.NORTH;
-        };
+    private void bindKey(JPanel panel, int keyCode, String name, Runnable action) {
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(keyCode, 0), name);
+        panel.getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                action.run();
+            }
+        });
     }
 
+    /**
+     * Draws the maze once into an image and then only repaints what changed:
+     * the roomba's old and new cells, people who were just rescued, and the
+     * text in the top right corner. Nothing is repainted when nothing changed,
+     * which keeps big mazes as cheap to show as small ones.
+     *
+     * Everything about the roomba comes from the last SimulationSnapshot it
+     * was handed, never from the simulation itself, which may be mid-step on
+     * another thread. Only the maze and the people's positions, which never
+     * change, are read from the simulation directly.
+     */
     class GridPanel extends JPanel {
+        private final BufferedImage mazeImage;
+
+        // What was on screen after the last repaint
+        private SimulationSnapshot drawn;
+        private int drawnNumRescued = 0; // People drawn green in mazeImage
+        private int drawnReplayStep = -1;
+
         public GridPanel() {
             setBackground(Color.BLACK); // Set the background color of the panel to black
+            int gridSize = simulation.getGridSize();
+            mazeImage = new BufferedImage(gridSize * cellSize, gridSize * cellSize, BufferedImage.TYPE_INT_RGB);
+            drawMaze();
         }
 
         public int getTextOffsetX() {
@@ -269,84 +211,168 @@ public class GridWorld extends JFrame {
             return TEXT_OFFSET_Y;
         }
 
+        // Draws every person as still waiting. repaintChanges() colours the rescued ones.
+        private void drawMaze() {
+            Graphics2D g = mazeImage.createGraphics();
+            Grid grid = simulation.getGrid();
+            int gridSize = simulation.getGridSize();
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, mazeImage.getWidth(), mazeImage.getHeight());
+            for (int i = 0; i < gridSize; i++) {
+                for (int j = 0; j < gridSize; j++) {
+                    if (!grid.isWall(i, j)) {
+                        drawCell(g, i, j, false);
+                    }
+                }
+            }
+            g.dispose();
+            drawnNumRescued = 0;
+        }
+
+        private void drawCell(Graphics g, int i, int j, boolean rescued) {
+            int drawY = toScreenY(j);
+            g.setColor(Color.WHITE);
+            g.fillRect(i * cellSize, drawY, cellSize, cellSize);
+
+            if (simulation.getGrid().isPerson(i, j)) {
+                g.setColor(rescued ? Color.GREEN : Color.RED);
+                g.fillOval(i * cellSize, drawY, cellSize, cellSize);
+            }
+
+            // Draw black border around the cell
+            if (cellSize >= MIN_BORDERED_CELL_SIZE) {
+                g.setColor(Color.BLACK);
+                g.drawRect(i * cellSize, drawY, cellSize, cellSize);
+            }
+        }
+
+        private int toScreenY(int y) {
+            return (simulation.getGridSize() - 1 - y) * cellSize; // Invert y-axis for drawing
+        }
+
+        // One pixel extra on each side covers the cell's border.
+        private void repaintCell(int x, int y) {
+            repaint(x * cellSize - 1, toScreenY(y) - 1, cellSize + 2, cellSize + 2);
+        }
+
+        private Rectangle hudBounds() {
+            return new Rectangle(getTextOffsetX(), 0, TEXT_OFFSET_X, getTextOffsetY() + 270);
+        }
+
+        /**
+         * Compares a snapshot with what was drawn last and asks Swing to repaint
+         * only the parts that differ.
+         */
+        public void repaintChanges(SimulationSnapshot snapshot) {
+            int replayStep = replayer != null ? replayer.getStep() : -1;
+            if (snapshot.looksLike(drawn) && replayStep == drawnReplayStep) {
+                return;
+            }
+
+            int numRescued = snapshot.getNumRescued();
+            if (numRescued < drawnNumRescued) {
+                // A replay went back in time, so some people are waiting again
+                drawMaze();
+                repaint();
+            }
+            if (numRescued > drawnNumRescued) {
+                Victims victims = simulation.getVictims();
+                Graphics2D g = mazeImage.createGraphics();
+                for (int i = drawnNumRescued; i < numRescued; i++) {
+                    int victim = victims.getRescuedVictim(i);
+                    drawCell(g, victims.getX(victim), victims.getY(victim), true);
+                    repaintCell(victims.getX(victim), victims.getY(victim));
+                }
+                g.dispose();
+                drawnNumRescued = numRescued;
+            }
+
+            if (drawn != null) {
+                repaintCell(drawn.getRoombaX(), drawn.getRoombaY());
+            }
+            repaintCell(snapshot.getRoombaX(), snapshot.getRoombaY());
+            repaint(hudBounds());
+
+            drawn = snapshot;
+            drawnReplayStep = replayStep;
+        }
+
+        // For changes that live outside the simulation, like pausing.
+        public void repaintHud() {
+            repaint(hudBounds());
+        }
+
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
-            for (int i = 0; i < GRID_SIZE; i++) {
-                for (int j = 0; j < GRID_SIZE; j++) {
-                    int drawY = (GRID_SIZE - 1 - j) * CELL_SIZE; // Invert y-axis for drawing
-                    switch (grid[i][j]) {
-                        case WALL -> {
-                            g.setColor(Color.BLACK);
-                            g.fillRect(i * CELL_SIZE, drawY, CELL_SIZE, CELL_SIZE);
-                        }
-                        case PERSON -> {
-                            g.setColor(Color.WHITE);
-                            g.fillRect(i * CELL_SIZE, drawY, CELL_SIZE, CELL_SIZE);
-
-                            g.setColor(foundHuman ? Color.GREEN : Color.RED);
-                            g.fillOval(i * CELL_SIZE, drawY, CELL_SIZE, CELL_SIZE);
-
-                            // Draw black border around the cell
-                            g.setColor(Color.BLACK);
-                            g.drawRect(i * CELL_SIZE, drawY, CELL_SIZE, CELL_SIZE);
-                        }
-                        case FREE -> {
-                            g.setColor(Color.WHITE);
-                            g.fillRect(i * CELL_SIZE, drawY, CELL_SIZE, CELL_SIZE);
-
-                            // Draw black border around the cell
-                            g.setColor(Color.BLACK);
-                            g.drawRect(i * CELL_SIZE, drawY, CELL_SIZE, CELL_SIZE);
-                        }
-                        default -> {
-                            throw new RuntimeException("Reach invalid case.");
-                        }
-                    }
-                }
+            g.drawImage(mazeImage, 0, 0, null);
+
+            final SimulationSnapshot snapshot = drawn;
+            if (snapshot == null) {
+                return; // Nothing to show until the first snapshot arrives
             }
+            final int roombaX = snapshot.getRoombaX();
+            final int roombaY = snapshot.getRoombaY();
+            final boolean leftSensorTripped = snapshot.isLeftSensorTripped();
+            final boolean rightSensorTripped = snapshot.isRightSensorTripped();
+            final boolean frontSensorTripped = snapshot.isFrontSensorTripped();
+            final boolean backSensorTripped = snapshot.isBackSensorTripped();
+
             // Draw roomba
-            int roombaDrawY = (GRID_SIZE - 1 - roombaY) * CELL_SIZE; // Invert y-axis for Roomba
+            int roombaDrawY = toScreenY(roombaY); // Invert y-axis for Roomba
             g.setColor(Color.BLUE);
-            g.fillOval(roombaX * CELL_SIZE, roombaDrawY, CELL_SIZE, CELL_SIZE);
+            g.fillOval(roombaX * cellSize, roombaDrawY, cellSize, cellSize);
 
             // Draw the pie wedges to indicate direction and sensor triggers
-            int startAngle = calculateStartAngle();
+            int startAngle = calculateStartAngle(snapshot.getDirection());
             g.setColor(frontSensorTripped ? Color.GREEN : Color.RED); // Color for the pie wedge
-            g.fillArc(roombaX * CELL_SIZE, roombaDrawY, CELL_SIZE, CELL_SIZE, startAngle, 90); // Draw 90-degree arc
+            g.fillArc(roombaX * cellSize, roombaDrawY, cellSize, cellSize, startAngle, 90); // Draw 90-degree arc
 
             // Right sensor indicator
             g.setColor(rightSensorTripped ? Color.GREEN : Color.RED);
-            g.fillArc(roombaX * CELL_SIZE, roombaDrawY, CELL_SIZE, CELL_SIZE, startAngle - 68, 45);
+            g.fillArc(roombaX * cellSize, roombaDrawY, cellSize, cellSize, startAngle - 68, 45);
 
             // Left sensor indicator
             g.setColor(leftSensorTripped ? Color.GREEN : Color.RED);
-            g.fillArc(roombaX * CELL_SIZE, roombaDrawY, CELL_SIZE, CELL_SIZE, startAngle + 112, 45);
+            g.fillArc(roombaX * cellSize, roombaDrawY, cellSize, cellSize, startAngle + 112, 45);
 
             // Back sensor indicator
             g.setColor(backSensorTripped ? Color.GREEN : Color.RED);
-            g.fillArc(roombaX * CELL_SIZE, roombaDrawY, CELL_SIZE, CELL_SIZE, startAngle + 202, 45);
+            g.fillArc(roombaX * cellSize, roombaDrawY, cellSize, cellSize, startAngle + 202, 45);
 
             // Display sensor states
             g.setColor(Color.ORANGE);
             g.drawString(title, 20, 30);
 
+            Rectangle clip = g.getClipBounds();
+            if (clip != null && !clip.intersects(hudBounds())) {
+                return; // Only the maze needed repainting
+            }
             g.drawString("Left: " + (leftSensorTripped ? "Wall" : "Clear"), getTextOffsetX(), getTextOffsetY() + 20);
             g.drawString("Right: " + (rightSensorTripped ? "Wall" : "Clear"), getTextOffsetX(), getTextOffsetY() + 35);
             g.drawString("Front: " + (frontSensorTripped ? "Wall" : "Clear"), getTextOffsetX(), getTextOffsetY() + 50);
             g.drawString("Back: " + (backSensorTripped ? "Wall" : "Clear"), getTextOffsetX(), getTextOffsetY() + 65);
-            g.drawString("Person Detected: " + (personDetected ? "Yes" : "No"), getTextOffsetX(),
+            g.drawString("Person Detected: " + (snapshot.isPersonDetected() ? "Yes" : "No"), getTextOffsetX(),
                     getTextOffsetY() + 80);
-            g.drawString("Direction: " + (direction.toString()), getTextOffsetX(), getTextOffsetY() + 95);
-            g.drawString("Wireless Signal: " + signaledForHelp, getTextOffsetX(), getTextOffsetY() + 115);
-            g.drawString("Person rescued: " + foundHuman, getTextOffsetX(), getTextOffsetY() + 130);
-            g.drawString("Rescue Clock: " + (numSteps * POLICY_INTERVAL / 1000.0) + "s", getTextOffsetX(), getTextOffsetY() + 145);
+            g.drawString("Direction: " + (snapshot.getDirection().toString()), getTextOffsetX(), getTextOffsetY() + 95);
+            g.drawString("Wireless Signal: " + snapshot.didSignalForHelp(), getTextOffsetX(), getTextOffsetY() + 115);
+            g.drawString("People rescued: " + snapshot.getNumRescued() + "/" + simulation.getVictims().size(),
+                    getTextOffsetX(), getTextOffsetY() + 130);
+            g.drawString("Rescue Clock: " + (snapshot.getNumSteps() * POLICY_INTERVAL / 1000.0) + "s", getTextOffsetX(), getTextOffsetY() + 145);
 
             g.drawString("Paused: " + paused, getTextOffsetX(), getTextOffsetY() + 170);
             g.drawString("(spacebar)", getTextOffsetX(), getTextOffsetY() + 185);
+            g.drawString("Speed: " + speedText(), getTextOffsetX(), getTextOffsetY() + 200);
+            g.drawString("(+/- keys)", getTextOffsetX(), getTextOffsetY() + 215);
+
+            if (replayer != null) {
+                g.drawString("Replay: " + replayer.getStep() + "/" + replayer.getNumSteps(), getTextOffsetX(),
+                        getTextOffsetY() + 240);
+                g.drawString("(arrows, pgup/pgdn)", getTextOffsetX(), getTextOffsetY() + 255);
+            }
         }
 
-        private int calculateStartAngle() {
+        private int calculateStartAngle(Simulation.Direction direction) {
             return switch (direction) {
                 case NORTH -> 45; // Up
                 case EAST -> -45; // Right
@@ -0,0 +1,91 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.Random;
+
+/**
+ * Randomized Kruskal: shuffles every wall between two neighboring cells, then
+ * knocks a wall down whenever the cells on either side are not connected yet.
+ * A union-find keeps track of which cells are already connected.
+ */
+public class KruskalMazeGenerator implements MazeGenerator {
+
+    @Override
+    public void generate(Grid grid, Random random) {
+        int cellsAcross = (grid.getWidth() - 1) / 2;
+        int cellsUp = (grid.getHeight() - 1) / 2;
+        int numCells = cellsAcross * cellsUp;
+        grid.fillWalls();
+
+        // Edge e joins cell e / 2 to its east neighbor when e is even, its north neighbor when odd
+        int[] edges = new int[2 * numCells];
+        int numEdges = 0;
+        for (int cell = 0; cell < numCells; cell++) {
+            int cx = cell % cellsAcross;
+            int cy = cell / cellsAcross;
+            grid.setWall(2 * cx + 1, 2 * cy + 1, false);
+            if (cx < cellsAcross - 1) {
+                edges[numEdges++] = 2 * cell;
+            }
+            if (cy < cellsUp - 1) {
+                edges[numEdges++] = 2 * cell + 1;
+            }
+        }
+
+        // Fisher-Yates shuffle
+        for (int i = numEdges - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = edges[i];
+            edges[i] = edges[j];
+            edges[j] = tmp;
+        }
+
+        int[] parent = new int[numCells];
+        int[] size = new int[numCells];
+        for (int i = 0; i < numCells; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+
+        int joined = 1;
+        for (int i = 0; i < numEdges && joined < numCells; i++) {
+            int cell = edges[i] / 2;
+            boolean east = edges[i] % 2 == 0;
+            int other = east ? cell + 1 : cell + cellsAcross;
+
+            int rootA = find(parent, cell);
+            int rootB = find(parent, other);
+            if (rootA == rootB) {
+                continue;
+            }
+
+            // Union by size, so the trees stay shallow
+            if (size[rootA] < size[rootB]) {
+                int tmp = rootA;
+                rootA = rootB;
+                rootB = tmp;
+            }
+            parent[rootB] = rootA;
+            size[rootA] += size[rootB];
+            joined++;
+
+            int cx = cell % cellsAcross;
+            int cy = cell / cellsAcross;
+            if (east) {
+                grid.setWall(2 * cx + 2, 2 * cy + 1, false);
+            } else {
+                grid.setWall(2 * cx + 1, 2 * cy + 2, false);
+            }
+        }
+    }
+
+    // Finds the root of a cell's set, halving the path on the way up.
+    private static int find(int[] parent, int cell) {
+        while (parent[cell] != cell) {
+            parent[cell] = parent[parent[cell]];
+            cell = parent[cell];
+        }
+        return cell;
+    }
+}
@@ -0,0 +1,21 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+/**
+ * The maze generators a level or a tournament can pick from.
+ */
+public enum MazeAlgorithm {
+    DEPTH_FIRST, KRUSKAL, PRIM, WILSON, BINARY_TREE, SIDEWINDER;
+
+    public MazeGenerator create() {
+        return switch (this) {
+            case DEPTH_FIRST -> new DepthFirstMazeGenerator();
+            case KRUSKAL -> new KruskalMazeGenerator();
+            case PRIM -> new PrimMazeGenerator();
+            case WILSON -> new WilsonMazeGenerator();
+            case BINARY_TREE -> new BinaryTreeMazeGenerator();
+            case SIDEWINDER -> new SidewinderMazeGenerator();
+        };
+    }
+}
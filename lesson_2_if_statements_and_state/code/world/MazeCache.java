@@ -0,0 +1,218 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers generated mazes so a (seed, grid size, algorithm) only has to be
+ * generated once. Mazes live in an in-memory LRU map holding at most maxEntries
+ * mazes. If a directory is given, every maze is also saved there so the next
+ * JVM can memory-map it back in instead of generating it again.
+ *
+ * get() is safe to call from many threads. Every call hands back its own copy of
+ * the maze, so callers are free to place people on it.
+ *
+ * On disk, each maze is one file: a header of magic, version, width, height and
+ * seed, followed by the Grid's packed long words.
+ */
+public class MazeCache {
+    private static final int MAGIC = 0x4D415A45; // "MAZE"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 4 + 8;
+
+    private final int maxEntries;
+    private final Path directory;
+    private final LinkedHashMap<Key, Grid> mazes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static class Key {
+        private final long seed;
+        private final int gridSize;
+        private final MazeAlgorithm algorithm;
+
+        Key(long seed, int gridSize, MazeAlgorithm algorithm) {
+            this.seed = seed;
+            this.gridSize = gridSize;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return seed == other.seed && gridSize == other.gridSize && algorithm == other.algorithm;
+        }
+
+        @Override
+        public int hashCode() {
+            return (Long.hashCode(seed) * 31 + gridSize) * 31 + algorithm.hashCode();
+        }
+
+        String fileName() {
+            return String.format("maze-%s-%d-%016x.bin", algorithm.name().toLowerCase(), gridSize, seed);
+        }
+    }
+
+    public MazeCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    public MazeCache(int maxEntries, Path directory) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("MazeCache needs room for at least 1 maze. Got " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.directory = directory;
+        // An access-ordered LinkedHashMap keeps the least recently used maze first
+        this.mazes = new LinkedHashMap<Key, Grid>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Grid> eldest) {
+                if (size() > MazeCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create maze cache directory " + directory, e);
+            }
+        }
+    }
+
+    public Grid get(long seed, int gridSize, MazeAlgorithm algorithm) {
+        Key key = new Key(seed, gridSize, algorithm);
+        Grid maze;
+        synchronized (mazes) {
+            maze = mazes.get(key);
+        }
+        if (maze != null) {
+            hits.incrementAndGet();
+            return maze.copy();
+        }
+
+        // Loading and generating happen outside the lock, so two threads asking for
+        // the same new maze may both build it. They build the same maze either way.
+        maze = load(key);
+        if (maze != null) {
+            diskHits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            maze = Simulation.generateMaze(seed, gridSize, algorithm);
+            save(key, maze);
+        }
+
+        synchronized (mazes) {
+            mazes.put(key, maze);
+        }
+        return maze.copy();
+    }
+
+    private Grid load(Key key) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = directory.resolve(key.fileName());
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null; // Not a file we wrote, regenerate it
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            long seed = buffer.getLong();
+            if (width != key.gridSize || height != key.gridSize || seed != key.seed) {
+                return null;
+            }
+            long[] bits = new long[Grid.wordsFor(width, height)];
+            if (buffer.remaining() != bits.length * Long.BYTES) {
+                return null;
+            }
+            buffer.asLongBuffer().get(bits);
+            return new Grid(width, height, bits);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void save(Key key, Grid maze) {
+        if (directory == null) {
+            return;
+        }
+        long[] bits = maze.getBits();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + bits.length * Long.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(maze.getWidth()).putInt(maze.getHeight()).putLong(key.seed);
+        buffer.asLongBuffer().put(bits);
+        buffer.rewind(); // The long view does not move the byte buffer's position
+
+        // Write to a temporary file first so other JVMs never map a half written maze
+        Path file = directory.resolve(key.fileName());
+        try {
+            Path tmp = Files.createTempFile(directory, "maze-", ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save maze to " + file, e);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int size() {
+        synchronized (mazes) {
+            return mazes.size();
+        }
+    }
+
+    public String toString() {
+        return String.format("MazeCache(size=%d/%d, hits=%d, diskHits=%d, misses=%d, evictions=%d)", size(), maxEntries,
+                getHits(), getDiskHits(), getMisses(), getEvictions());
+    }
+}
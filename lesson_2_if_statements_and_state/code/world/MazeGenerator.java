@@ -0,0 +1,15 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.Random;
+
+/**
+ * Carves a maze into a grid. Maze cells sit on odd coordinates (1, 3, 5, ...)
+ * and the cells in between are the walls that get knocked down. Everything
+ * random must come from the given Random, so the same seed always gives the
+ * same maze.
+ */
+public interface MazeGenerator {
+    public void generate(Grid grid, Random random);
+}
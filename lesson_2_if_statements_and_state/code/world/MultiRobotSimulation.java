@@ -0,0 +1,265 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.stream.IntStream;
+
+/**
+ * Many robots searching one maze together, each driven by its own Policy
+ * instance. All robots move in the same tick:
+ *
+ *   1. every robot's sensors are read (walls and other robots both trip them)
+ *   2. every policy runs, in parallel, each touching only its own robot
+ *   3. help signals are checked and each robot's next command is applied
+ *
+ * Moves are resolved the same way every time, no matter how the policies were
+ * scheduled. A move into a wall fails. When several robots want the same
+ * cell, the lowest numbered robot gets it. A robot can't move into a cell
+ * whose robot stays put, and two robots can't swap cells head on. Blocked
+ * robots stay where they are, which may block others, so this repeats until
+ * nothing changes.
+ *
+ * Robot state is kept as parallel primitive arrays (struct of arrays) rather
+ * than one object per robot.
+ */
+public class MultiRobotSimulation {
+    // Indexed by Direction ordinal: North, East, South, West
+    private static final int[] DX = { 0, 1, 0, -1 };
+    private static final int[] DY = { 1, 0, -1, 0 };
+
+    private final Grid grid;
+    private final WallMasks wallMasks;
+    private final Victims victims;
+    private final int numRobots;
+    private final Policy[] policies;
+    private final RobotImpl[] robots;
+
+    private final int[] robotX;
+    private final int[] robotY;
+    private final byte[] robotDirection;
+    private final int[] robotSignalCount; // Signals seen so far, to spot new ones
+    private final int[] targetCell; // -1 when the robot is not moving this tick
+
+    private final CellIndex owners; // Which robot stands on which cell
+    private final CellIndex claims; // Which robot gets to move into which cell this tick
+
+    private int numSteps = 0;
+    private int stepsToRescue = -1;
+    private int numFalseSignals = 0;
+    private boolean foundHuman = false;
+
+    public MultiRobotSimulation(Grid maze, int[][] humanPosition, Policy[] policies, int[][] startPositions) {
+        if (policies.length != startPositions.length) {
+            throw new IllegalArgumentException("Expected one start position per policy. Got " + policies.length
+                    + " policies and " + startPositions.length + " positions.");
+        }
+        this.grid = maze;
+        this.victims = new Victims(maze, humanPosition);
+        this.wallMasks = new WallMasks(maze);
+        this.numRobots = policies.length;
+        this.policies = policies;
+
+        robots = new RobotImpl[numRobots];
+        robotX = new int[numRobots];
+        robotY = new int[numRobots];
+        robotDirection = new byte[numRobots];
+        robotSignalCount = new int[numRobots];
+        targetCell = new int[numRobots];
+
+        owners = new CellIndex(numRobots);
+        claims = new CellIndex(numRobots);
+
+        for (int i = 0; i < numRobots; i++) {
+            robots[i] = new RobotImpl();
+            robotX[i] = startPositions[i][0];
+            robotY[i] = startPositions[i][1];
+            robotDirection[i] = (byte) Simulation.Direction.NORTH.ordinal();
+            if (!grid.isOpen(robotX[i], robotY[i])) {
+                throw new IllegalArgumentException("Robot " + i + " starts inside a wall.");
+            }
+        }
+        buildOwnerTable();
+        for (int i = 0; i < numRobots; i++) {
+            if (owners.get(grid.index(robotX[i], robotY[i])) != i) {
+                throw new IllegalArgumentException("Robot " + i + " starts on the same cell as another robot.");
+            }
+        }
+    }
+
+    /**
+     * Start positions for numRobots robots on distinct maze cells, filling the
+     * maze row by row from the bottom-left corner.
+     */
+    public static int[][] spreadStartPositions(Grid maze, int numRobots) {
+        int[][] positions = new int[numRobots][];
+        int placed = 0;
+        for (int y = 1; y < maze.getHeight() - 1 && placed < numRobots; y += 2) {
+            for (int x = 1; x < maze.getWidth() - 1 && placed < numRobots; x += 2) {
+                if (maze.isOpen(x, y)) {
+                    positions[placed++] = new int[] { x, y };
+                }
+            }
+        }
+        if (placed < numRobots) {
+            throw new IllegalArgumentException("The maze only has room for " + placed + " robots.");
+        }
+        return positions;
+    }
+
+    public SimulationResult run(int maxSteps) {
+        while (!foundHuman && numSteps < maxSteps) {
+            step();
+        }
+        return new SimulationResult(
+                foundHuman ? SimulationResult.TerminationReason.RESCUED : SimulationResult.TerminationReason.STEP_LIMIT,
+                numSteps, stepsToRescue, victims.getNumRescued() > 0 || numFalseSignals > 0, numFalseSignals == 0
+                        && victims.getNumRescued() > 0, victims.size(), victims.copyRescueSteps());
+    }
+
+    public void step() {
+        for (int i = 0; i < numRobots; i++) {
+            updateSensors(i);
+        }
+
+        // Each policy only touches its own robot, so they can all run at once
+        IntStream.range(0, numRobots).parallel().forEach(i -> policies[i].execute(robots[i]));
+
+        if (!foundHuman) {
+            numSteps++;
+        }
+
+        // Robots are checked in order, so two robots signaling on one person on the
+        // same tick always credit the lower numbered robot.
+        for (int i = 0; i < numRobots; i++) {
+            int signalCount = robots[i].getNumSignals();
+            if (signalCount == robotSignalCount[i]) {
+                continue;
+            }
+            robotSignalCount[i] = signalCount;
+            int victim = victims.victimAt(robotX[i], robotY[i]);
+            if (victim < 0) {
+                numFalseSignals++;
+            } else if (victims.rescue(victim, numSteps) && victims.allRescued()) {
+                foundHuman = true;
+                stepsToRescue = numSteps;
+            }
+        }
+
+        for (int i = 0; i < numRobots; i++) {
+            targetCell[i] = -1;
+            byte command = robots[i].poll();
+            if (command == RobotImpl.NO_COMMAND) {
+                continue;
+            }
+            switch (RobotImpl.CommandType.fromCode(command)) {
+                case MOVE_FORWARD -> {
+                    int nx = robotX[i] + DX[robotDirection[i]];
+                    int ny = robotY[i] + DY[robotDirection[i]];
+                    if (grid.isOpen(nx, ny)) {
+                        targetCell[i] = grid.index(nx, ny);
+                    }
+                }
+                case ROTATE_LEFT -> robotDirection[i] = (byte) ((robotDirection[i] + 3) % 4);
+                case ROTATE_RIGHT -> robotDirection[i] = (byte) ((robotDirection[i] + 1) % 4);
+            }
+        }
+
+        resolveMoves();
+    }
+
+    private void resolveMoves() {
+        // Only the lowest numbered robot may claim a cell
+        claims.clear();
+        for (int i = 0; i < numRobots; i++) {
+            if (targetCell[i] >= 0 && claims.putIfAbsent(targetCell[i], i) != i) {
+                targetCell[i] = -1;
+            }
+        }
+
+        // Cancel moves into cells whose robot is not leaving, until nothing changes
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < numRobots; i++) {
+                if (targetCell[i] < 0) {
+                    continue;
+                }
+                int occupant = owners.get(targetCell[i]);
+                if (occupant < 0) {
+                    continue;
+                }
+                boolean occupantStays = targetCell[occupant] < 0;
+                boolean headOnSwap = targetCell[occupant] == grid.index(robotX[i], robotY[i]);
+                if (occupantStays || headOnSwap) {
+                    targetCell[i] = -1;
+                    changed = true;
+                }
+            }
+        }
+
+        for (int i = 0; i < numRobots; i++) {
+            if (targetCell[i] >= 0) {
+                robotX[i] = targetCell[i] % grid.getWidth();
+                robotY[i] = targetCell[i] / grid.getWidth();
+            }
+        }
+        buildOwnerTable();
+    }
+
+    // Walls come from the precomputed masks, other robots are added on top.
+    private void updateSensors(int i) {
+        int x = robotX[i];
+        int y = robotY[i];
+        int direction = robotDirection[i];
+        int bits = WallMasks.sense(wallMasks.get(grid.index(x, y)), direction);
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (grid.contains(nx, ny) && owners.get(grid.index(nx, ny)) >= 0) {
+                bits |= WallMasks.sensorBitToward(d, direction);
+            }
+        }
+        robots[i].updateSensors((bits & 1) != 0, (bits & 2) != 0, (bits & 4) != 0, (bits & 8) != 0,
+                (bits & WallMasks.PERSON) != 0);
+    }
+
+    private void buildOwnerTable() {
+        owners.clear();
+        for (int i = 0; i < numRobots; i++) {
+            owners.putIfAbsent(grid.index(robotX[i], robotY[i]), i);
+        }
+    }
+
+    public int getNumRobots() {
+        return numRobots;
+    }
+
+    public int getRobotX(int robot) {
+        return robotX[robot];
+    }
+
+    public int getRobotY(int robot) {
+        return robotY[robot];
+    }
+
+    public int getNumSteps() {
+        return numSteps;
+    }
+
+    public int getNumFalseSignals() {
+        return numFalseSignals;
+    }
+
+    // True once every person has been rescued.
+    public boolean didFindHuman() {
+        return foundHuman;
+    }
+
+    public Victims getVictims() {
+        return victims;
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+}
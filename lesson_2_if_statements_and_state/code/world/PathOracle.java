@@ -0,0 +1,100 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.Arrays;
+
+/**
+ * Knows the fewest steps any policy could take to reach each cell of a maze.
+ * A step is one command, and turning costs a step just like moving does, so the
+ * search runs over (x, y, direction) states instead of cells: four states per
+ * cell, packed as index * 4 + direction.
+ *
+ * The whole distance field is computed once, with a breadth-first search from
+ * the roomba's start at (1, 1) facing north. After that every question is an
+ * array lookup, so one oracle can answer for any number of people in its maze.
+ */
+public class PathOracle {
+    // Indexed by Direction ordinal: North, East, South, West
+    private static final int[] DX = { 0, 1, 0, -1 };
+    private static final int[] DY = { 1, 0, -1, 0 };
+
+    public static final int START_X = 1;
+    public static final int START_Y = 1;
+
+    private final Grid grid;
+    private final int[] distance; // Steps to each state, -1 when it can't be reached
+
+    public PathOracle(Grid grid) {
+        this.grid = grid;
+        this.distance = new int[grid.getWidth() * grid.getHeight() * 4];
+        search();
+    }
+
+    private void search() {
+        Arrays.fill(distance, -1);
+        int[] queue = new int[distance.length];
+        int head = 0;
+        int tail = 0;
+        int start = grid.index(START_X, START_Y) * 4 + Simulation.Direction.NORTH.ordinal();
+        distance[start] = 0;
+        queue[tail++] = start;
+
+        int width = grid.getWidth();
+        while (head < tail) {
+            int state = queue[head++];
+            int next = distance[state] + 1;
+            int cell = state >> 2;
+            int direction = state & 3;
+
+            // Every state is reached first by the shortest path, so each enters the queue once
+            int left = (cell << 2) | ((direction + 3) & 3);
+            if (distance[left] < 0) {
+                distance[left] = next;
+                queue[tail++] = left;
+            }
+            int right = (cell << 2) | ((direction + 1) & 3);
+            if (distance[right] < 0) {
+                distance[right] = next;
+                queue[tail++] = right;
+            }
+            int x = cell % width + DX[direction];
+            int y = cell / width + DY[direction];
+            if (grid.isOpen(x, y)) {
+                int forward = (grid.index(x, y) << 2) | direction;
+                if (distance[forward] < 0) {
+                    distance[forward] = next;
+                    queue[tail++] = forward;
+                }
+            }
+        }
+    }
+
+    /**
+     * The fewest steps to stand on (x, y) facing any direction, or -1 when the
+     * cell can't be reached.
+     */
+    public int getStepsTo(int x, int y) {
+        if (!grid.isOpen(x, y)) {
+            return -1;
+        }
+        int best = -1;
+        int base = grid.index(x, y) << 2;
+        for (int d = 0; d < 4; d++) {
+            int steps = distance[base + d];
+            if (steps >= 0 && (best < 0 || steps < best)) {
+                best = steps;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The fewest steps to rescue a person at (x, y): getting there, plus the
+     * step spent signaling for help. -1 when they can't be reached.
+     */
+    public int getStepsToRescue(int x, int y) {
+        int steps = getStepsTo(x, y);
+        return steps < 0 ? -1 : steps + 1;
+    }
+}
@@ -0,0 +1,219 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import code.Robot;
+
+/**
+ * Times every Policy.execute() call of one simulation and holds it to a time
+ * budget. Attach it with Simulation.setPolicyProfiler(). For each call it
+ * records how long it took in a LatencyHistogram and, when the JVM supports it,
+ * how many bytes the call allocated.
+ *
+ * A call that takes longer than the budget is an overrun, and the simulation
+ * ends with TerminationReason.TIMEOUT once it returns. A call that never
+ * returns can't be stopped safely in Java, so while the profiler is open the
+ * PolicyWatchdog checks on running calls, interrupts any that are over budget
+ * and prints where they are stuck.
+ *
+ * Each call is numbered, and the watchdog claims the exact call it interrupts
+ * with a compare-and-set on that number. A call that finishes meanwhile waits
+ * in its finally block until the interrupt has landed, then clears it. So a
+ * watchdog interrupt never reaches the thread's next task, and an interrupt
+ * from anyone else, like a pool shutting down, is left alone.
+ *
+ * Profilers from many runs can be added together into one per policy.
+ */
+public class PolicyProfiler implements AutoCloseable {
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    // The low two bits of call: what the watchdog may do with the current call
+    private static final long IDLE = 0;
+    private static final long RUNNING = 1;
+    private static final long CLAIMED = 2; // The watchdog is about to interrupt it
+    private static final long INTERRUPTED = 3; // The watchdog interrupted it
+    private static final long PHASE = 3;
+
+    private final String policyName;
+    private final long budgetNanos;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private long allocatedBytes = 0;
+    private long maxAllocatedBytes = 0;
+    private int numOverruns = 0;
+    private int numRuns = 1;
+
+    // Read by the watchdog while a call is running
+    private volatile Thread runningThread;
+    private volatile long callStartNanos;
+    private volatile boolean stalled;
+    // The call's number, shifted left two, with its phase in the low bits
+    private final AtomicLong call = new AtomicLong();
+    // Only used by the watchdog: the state it claimed the call from
+    private long claimedFrom;
+
+    /**
+     * budgetNanos of 0 records timings without ever ending a run.
+     */
+    public PolicyProfiler(String policyName, long budgetNanos) {
+        if (budgetNanos < 0) {
+            throw new IllegalArgumentException("Time budget can't be negative. Got " + budgetNanos);
+        }
+        this.policyName = policyName;
+        this.budgetNanos = budgetNanos;
+        if (budgetNanos > 0) {
+            PolicyWatchdog.getInstance().watch(this);
+        }
+    }
+
+    // Null when this JVM can't count allocated bytes per thread.
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads;
+        }
+        return null;
+    }
+
+    void execute(Policy policy, Robot robot) {
+        long bytesBefore = THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+        long start = System.nanoTime();
+        long number = (call.get() & ~PHASE) + 4; // Each call's number is one more, above the phase bits
+        // Both set before the call is marked running, so the watchdog never pairs it with an old start or thread
+        callStartNanos = start;
+        runningThread = Thread.currentThread();
+        call.set(number | RUNNING);
+        try {
+            policy.execute(robot);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            finishCall(number);
+            latency.record(elapsed);
+            if (budgetNanos > 0 && elapsed > budgetNanos) {
+                numOverruns++;
+            }
+            if (THREADS != null) {
+                long bytes = THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+                allocatedBytes += bytes;
+                maxAllocatedBytes = Math.max(maxAllocatedBytes, bytes);
+            }
+        }
+    }
+
+    /**
+     * True once any call has gone over budget.
+     */
+    public boolean isTimedOut() {
+        return numOverruns > 0 || stalled;
+    }
+
+    // Ends call number, clearing the watchdog's interrupt if it sent one, and only then.
+    private void finishCall(long number) {
+        runningThread = null;
+        if (call.compareAndSet(number | RUNNING, number | IDLE)) {
+            return;
+        }
+        // The watchdog claimed this call, so wait for it to finish interrupting
+        long state;
+        while ((state = call.get()) == (number | CLAIMED)) {
+            Thread.onSpinWait();
+        }
+        if (state == (number | INTERRUPTED)) {
+            Thread.interrupted();
+        }
+        call.set(number | IDLE);
+    }
+
+    /**
+     * Called by the watchdog. Claims the running call if it is over budget
+     * and returns its thread, or returns null. Every claim must be followed
+     * by interrupt(), which the call waits for if it finishes meanwhile.
+     */
+    Thread checkStalled(long now) {
+        long state = call.get();
+        long phase = state & PHASE;
+        if (phase != RUNNING && phase != INTERRUPTED || now - callStartNanos <= budgetNanos) {
+            return null;
+        }
+        Thread thread = runningThread;
+        if (thread == null || !call.compareAndSet(state, (state & ~PHASE) | CLAIMED)) {
+            return null; // It just finished
+        }
+        stalled = true;
+        claimedFrom = state;
+        return thread;
+    }
+
+    // Called by the watchdog after checkStalled() claims the call running on thread.
+    void interrupt(Thread thread) {
+        boolean ours = (claimedFrom & PHASE) == INTERRUPTED;
+        if (!thread.isInterrupted()) {
+            thread.interrupt();
+            ours = true;
+        } // Otherwise someone else's interrupt is already waiting, and the call must keep it
+        call.set((claimedFrom & ~PHASE) | (ours ? INTERRUPTED : RUNNING));
+    }
+
+    /**
+     * Adds the calls recorded by other to this profiler.
+     */
+    public void add(PolicyProfiler other) {
+        latency.add(other.latency);
+        allocatedBytes += other.allocatedBytes;
+        maxAllocatedBytes = Math.max(maxAllocatedBytes, other.maxAllocatedBytes);
+        numOverruns += other.numOverruns;
+        numRuns += other.numRuns;
+    }
+
+    @Override
+    public void close() {
+        PolicyWatchdog.getInstance().unwatch(this);
+    }
+
+    public String getPolicyName() {
+        return policyName;
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public boolean isCountingAllocations() {
+        return THREADS != null;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public double getAllocatedBytesPerCall() {
+        return latency.getCount() == 0 ? Double.NaN : (double) allocatedBytes / latency.getCount();
+    }
+
+    public long getMaxAllocatedBytes() {
+        return maxAllocatedBytes;
+    }
+
+    public int getNumOverruns() {
+        return numOverruns;
+    }
+
+    public int getNumRuns() {
+        return numRuns;
+    }
+
+    public String toString() {
+        String allocation = isCountingAllocations()
+                ? String.format(" alloc=%.0fB/step maxAlloc=%dB", getAllocatedBytesPerCall(), maxAllocatedBytes)
+                : "";
+        return String.format("%-24s calls=%d p50=%.1fus p99=%.1fus max=%.1fus overruns=%d%s", policyName,
+                latency.getCount(), latency.getPercentileNanos(0.50) / 1000.0,
+                latency.getPercentileNanos(0.99) / 1000.0, latency.getMaxNanos() / 1000.0, numOverruns, allocation);
+    }
+}
@@ -0,0 +1,120 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.Arrays;
+
+/**
+ * Summary of how one policy did across every maze in a tournament.
+ */
+public class PolicyStats {
+    private String policyName;
+    private int numRuns;
+    private int numRescued;
+    private int numFalseSignals;
+    private int numTimeouts;
+    private double meanSteps;
+    private int p95Steps;
+    private double meanEfficiency;
+    private PolicyProfiler profile;
+
+    public PolicyStats(String policyName, SimulationResult[] results) {
+        this(policyName, results, null, null);
+    }
+
+    /**
+     * profile holds every policy call of every run added together, or is null
+     * when the policy was not profiled. optimalSteps holds the shortest
+     * possible rescue for each run (see PathOracle), or is null.
+     */
+    public PolicyStats(String policyName, SimulationResult[] results, PolicyProfiler profile, int[] optimalSteps) {
+        this.policyName = policyName;
+        this.numRuns = results.length;
+        this.profile = profile;
+
+        int[] rescueSteps = new int[results.length];
+        long totalSteps = 0;
+        double totalEfficiency = 0;
+        for (int i = 0; i < results.length; i++) {
+            SimulationResult result = results[i];
+            if (result.getReason() == SimulationResult.TerminationReason.RESCUED) {
+                rescueSteps[numRescued++] = result.getStepsToRescue();
+                totalSteps += result.getStepsToRescue();
+                if (optimalSteps != null) {
+                    totalEfficiency += (double) optimalSteps[i] / result.getStepsToRescue();
+                }
+            } else if (result.getReason() == SimulationResult.TerminationReason.FALSE_SIGNAL) {
+                numFalseSignals++;
+            } else if (result.getReason() == SimulationResult.TerminationReason.TIMEOUT) {
+                numTimeouts++;
+            }
+        }
+
+        // Step statistics only count the runs that actually rescued the person.
+        if (numRescued > 0) {
+            int[] sorted = Arrays.copyOf(rescueSteps, numRescued);
+            Arrays.sort(sorted);
+            meanSteps = (double) totalSteps / numRescued;
+            meanEfficiency = optimalSteps != null ? totalEfficiency / numRescued : Double.NaN;
+            p95Steps = sorted[(int) Math.ceil(0.95 * numRescued) - 1];
+        } else {
+            meanSteps = Double.NaN;
+            p95Steps = -1;
+            meanEfficiency = Double.NaN;
+        }
+    }
+
+    public String getPolicyName() {
+        return policyName;
+    }
+
+    public int getNumRuns() {
+        return numRuns;
+    }
+
+    public int getNumRescued() {
+        return numRescued;
+    }
+
+    public int getNumFalseSignals() {
+        return numFalseSignals;
+    }
+
+    /**
+     * How close the rescues were to the shortest possible path, averaged over the
+     * runs that rescued the person. 1.0 means every rescue was optimal. NaN when
+     * nothing was rescued or the optimal paths are unknown.
+     */
+    public double getMeanEfficiency() {
+        return meanEfficiency;
+    }
+
+    public int getNumTimeouts() {
+        return numTimeouts;
+    }
+
+    // Null when the policy was not profiled.
+    public PolicyProfiler getProfile() {
+        return profile;
+    }
+
+    public double getSuccessRate() {
+        return numRuns == 0 ? 0.0 : (double) numRescued / numRuns;
+    }
+
+    public double getMeanSteps() {
+        return meanSteps;
+    }
+
+    public int getP95Steps() {
+        return p95Steps;
+    }
+
+    public String toString() {
+        String summary = String.format(
+                "%-24s runs=%d rescued=%.1f%% falseSignals=%d timeouts=%d meanSteps=%.1f p95Steps=%d efficiency=%.1f%%",
+                policyName, numRuns, 100.0 * getSuccessRate(), numFalseSignals, numTimeouts, meanSteps, p95Steps,
+                100.0 * meanEfficiency);
+        return profile == null ? summary : summary + System.lineSeparator() + profile;
+    }
+}
@@ -0,0 +1,81 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One background thread that looks in on every open PolicyProfiler with a
+ * time budget, CHECK_INTERVAL_MILLIS apart. When a policy call is still
+ * running past its budget, the watchdog marks the run as timed out, prints
+ * the stuck thread's stack once so the loop can be found, and interrupts it.
+ * PolicyProfiler makes sure the interrupt only ever reaches the call it was
+ * meant for.
+ *
+ * Interrupting only helps policies that sleep or wait. A policy spinning in a
+ * plain loop keeps its thread until it returns, but its run is already marked
+ * and is reported as TIMEOUT whenever it does.
+ */
+class PolicyWatchdog {
+    private static final long CHECK_INTERVAL_MILLIS = 10;
+    private static final PolicyWatchdog INSTANCE = new PolicyWatchdog();
+
+    private final Set<PolicyProfiler> profilers = ConcurrentHashMap.newKeySet();
+    private final Set<PolicyProfiler> reported = ConcurrentHashMap.newKeySet();
+
+    private PolicyWatchdog() {
+        Thread thread = new Thread(this::loop, "policy-watchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    static PolicyWatchdog getInstance() {
+        return INSTANCE;
+    }
+
+    void watch(PolicyProfiler profiler) {
+        profilers.add(profiler);
+    }
+
+    void unwatch(PolicyProfiler profiler) {
+        profilers.remove(profiler);
+        reported.remove(profiler);
+    }
+
+    private void loop() {
+        while (true) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(CHECK_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now = System.nanoTime();
+            for (PolicyProfiler profiler : profilers) {
+                Thread stuck = profiler.checkStalled(now);
+                if (stuck == null) {
+                    continue;
+                }
+                try {
+                    if (reported.add(profiler)) {
+                        report(profiler, stuck);
+                    }
+                } finally {
+                    profiler.interrupt(stuck);
+                }
+            }
+        }
+    }
+
+    private static void report(PolicyProfiler profiler, Thread stuck) {
+        StringBuilder message = new StringBuilder();
+        message.append(profiler.getPolicyName()).append(" is over its ")
+                .append(TimeUnit.NANOSECONDS.toMillis(profiler.getBudgetNanos())).append("ms budget on thread ")
+                .append(stuck.getName()).append(":");
+        for (StackTraceElement frame : stuck.getStackTrace()) {
+            message.append(System.lineSeparator()).append("    at ").append(frame);
+        }
+        System.err.println(message);
+    }
+}
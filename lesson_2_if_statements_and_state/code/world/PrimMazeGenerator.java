@@ -0,0 +1,83 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.Random;
+
+/**
+ * Randomized Prim: grows the maze out from a random cell. The frontier holds
+ * every cell next to the maze that is not part of it yet. Each step a random
+ * frontier cell joins the maze through a random neighbor already in it.
+ */
+public class PrimMazeGenerator implements MazeGenerator {
+    private static final byte OUTSIDE = 0;
+    private static final byte FRONTIER = 1;
+    private static final byte IN_MAZE = 2;
+
+    // East, West, North, South
+    private static final int[] DX = { 1, -1, 0, 0 };
+    private static final int[] DY = { 0, 0, 1, -1 };
+
+    @Override
+    public void generate(Grid grid, Random random) {
+        int cellsAcross = (grid.getWidth() - 1) / 2;
+        int cellsUp = (grid.getHeight() - 1) / 2;
+        int numCells = cellsAcross * cellsUp;
+        grid.fillWalls();
+        if (numCells == 0) {
+            return;
+        }
+
+        byte[] state = new byte[numCells];
+        int[] frontier = new int[numCells];
+        int frontierSize = 0;
+        int[] inMazeNeighbors = new int[4];
+
+        int start = random.nextInt(numCells);
+        state[start] = IN_MAZE;
+        grid.setWall(2 * (start % cellsAcross) + 1, 2 * (start / cellsAcross) + 1, false);
+        frontierSize = addFrontier(start, cellsAcross, cellsUp, state, frontier, frontierSize);
+
+        while (frontierSize > 0) {
+            // Take a random frontier cell out of the list
+            int pick = random.nextInt(frontierSize);
+            int cell = frontier[pick];
+            frontier[pick] = frontier[--frontierSize];
+
+            int cx = cell % cellsAcross;
+            int cy = cell / cellsAcross;
+            int count = 0;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (nx >= 0 && nx < cellsAcross && ny >= 0 && ny < cellsUp && state[ny * cellsAcross + nx] == IN_MAZE) {
+                    inMazeNeighbors[count++] = d;
+                }
+            }
+
+            int d = inMazeNeighbors[random.nextInt(count)];
+            grid.setWall(2 * cx + 1, 2 * cy + 1, false);
+            grid.setWall(2 * cx + 1 + DX[d], 2 * cy + 1 + DY[d], false); // Knock down the wall between cells
+            state[cell] = IN_MAZE;
+            frontierSize = addFrontier(cell, cellsAcross, cellsUp, state, frontier, frontierSize);
+        }
+    }
+
+    private static int addFrontier(int cell, int cellsAcross, int cellsUp, byte[] state, int[] frontier,
+            int frontierSize) {
+        int cx = cell % cellsAcross;
+        int cy = cell / cellsAcross;
+        for (int d = 0; d < 4; d++) {
+            int nx = cx + DX[d];
+            int ny = cy + DY[d];
+            if (nx >= 0 && nx < cellsAcross && ny >= 0 && ny < cellsUp) {
+                int neighbor = ny * cellsAcross + nx;
+                if (state[neighbor] == OUTSIDE) {
+                    state[neighbor] = FRONTIER;
+                    frontier[frontierSize++] = neighbor;
+                }
+            }
+        }
+        return frontierSize;
+    }
+}
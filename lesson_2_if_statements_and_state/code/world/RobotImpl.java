@@ -1,36 +1,66 @@
 // © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
 
 package code.world;
-import java.util.LinkedList;
 import java.util.Optional;
-import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import code.Robot;
 
+/**
+ * The robot a Policy drives. Commands go through a small fixed-size ring
+ * buffer of byte command codes. It is safe for one thread (the policy) to add
+ * commands while another thread (the world) polls them: the producer publishes
+ * a command by releasing the tail index after writing the slot, and the
+ * consumer acquires the tail before reading it. Sensor readings are volatile
+ * for the same reason. Commands added while the queue is full are dropped and
+ * counted.
+ */
 public class RobotImpl implements Robot {
-    private boolean leftSensorTripped = false;
-    private boolean rightSensorTripped = false;
-    private boolean frontSensorTripped = false;
-    private boolean backSensorTripped = false;
-    private boolean personDetected = false;
-    private boolean signaledForHelp = false;
+    private volatile boolean leftSensorTripped = false;
+    private volatile boolean rightSensorTripped = false;
+    private volatile boolean frontSensorTripped = false;
+    private volatile boolean backSensorTripped = false;
+    private volatile boolean personDetected = false;
+    private volatile boolean signaledForHelp = false;
 
-    private static final int QUEUE_SIZE = 4;
+    private static final int QUEUE_SIZE = 4; // Must be a power of two
+    private static final int QUEUE_MASK = QUEUE_SIZE - 1;
+
+    public static final byte NO_COMMAND = -1;
 
     public enum CommandType {
-        MOVE_FORWARD, ROTATE_LEFT, ROTATE_RIGHT
+        MOVE_FORWARD, ROTATE_LEFT, ROTATE_RIGHT;
+
+        private static final CommandType[] VALUES = values();
+
+        public byte code() {
+            return (byte) ordinal();
+        }
+
+        public static CommandType fromCode(byte code) {
+            return VALUES[code];
+        }
     };
 
-    private Queue<CommandType> commandQueue;
+    private final byte[] commandQueue = new byte[QUEUE_SIZE];
+    // Only the producer writes tail and only the consumer writes head. Both only ever grow.
+    private final AtomicInteger head = new AtomicInteger();
+    private final AtomicInteger tail = new AtomicInteger();
+    private final AtomicLong droppedCommands = new AtomicLong();
+    private final AtomicInteger numSignals = new AtomicInteger();
 
     public RobotImpl() {
-        commandQueue = new LinkedList<CommandType>();
     }
 
     public void add(CommandType cmd) {
-        if (commandQueue.size() < QUEUE_SIZE) {
-            commandQueue.add(cmd);
+        int t = tail.get(); // Only this thread writes tail
+        if (t - head.getAcquire() >= QUEUE_SIZE) {
+            droppedCommands.incrementAndGet();
+            return;
         }
+        commandQueue[t & QUEUE_MASK] = cmd.code();
+        tail.setRelease(t + 1); // Publishes the slot written above
     }
 
     @Override
@@ -75,6 +105,7 @@ public class RobotImpl implements Robot {
 
     @Override
     public void signalForHelp() {
+        numSignals.incrementAndGet();
         signaledForHelp = true;
     }
 
@@ -82,6 +113,11 @@ public class RobotImpl implements Robot {
         return signaledForHelp;
     }
 
+    // How many times signalForHelp() has been called. The world compares this between steps.
+    public int getNumSignals() {
+        return numSignals.get();
+    }
+
     public void updateSensors(
             boolean leftSensorTripped,
             boolean rightSensorTripped,
@@ -95,24 +131,39 @@ public class RobotImpl implements Robot {
         this.personDetected = personDetected;
     }
 
+    /**
+     * Takes the next command code off the queue, or NO_COMMAND when it is empty.
+     * Never allocates.
+     */
+    public byte poll() {
+        int h = head.get(); // Only this thread writes head
+        if (h == tail.getAcquire()) {
+            return NO_COMMAND;
+        }
+        byte code = commandQueue[h & QUEUE_MASK];
+        head.setRelease(h + 1); // Hands the slot back to the producer
+        return code;
+    }
+
     public Optional<CommandType> pop() {
-        if (commandQueue.size() == 0) {
+        byte code = poll();
+        if (code == NO_COMMAND) {
             return Optional.empty();
         }
 
-        return Optional.of(commandQueue.poll());
+        return Optional.of(CommandType.fromCode(code));
+    }
+
+    public long getDroppedCommands() {
+        return droppedCommands.get();
     }
 
     public String queueToString() {
         String s = "Commands:\n\n";
-        if (commandQueue.size() == 0) {
-            return s;
-        }
-
-        int i = 0;
-        for (CommandType c : commandQueue) {
-            s += i + ": " + c.toString() + "\n\n";
-            i++;
+        int h = head.getAcquire();
+        int t = tail.getAcquire();
+        for (int i = h; i < t; i++) {
+            s += (i - h) + ": " + CommandType.fromCode(commandQueue[i & QUEUE_MASK]).toString() + "\n\n";
         }
         return s;
     }
@@ -0,0 +1,46 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.Random;
+
+/**
+ * A maze generator that only ever looks at one row of cells at a time, so it
+ * can stream a maze out row by row in memory proportional to the width. That
+ * lets it produce mazes far bigger than a Grid can hold.
+ */
+public interface RowMazeGenerator extends MazeGenerator {
+
+    public interface RowSink {
+        /**
+         * Receives grid row y, from the bottom row (0) to the top. Bit x of walls
+         * is set when (x, y) is a wall. The array is reused for the next row.
+         */
+        public void acceptRow(int y, long[] walls);
+    }
+
+    public void generateRows(int width, int height, Random random, RowSink sink);
+
+    @Override
+    public default void generate(Grid grid, Random random) {
+        generateRows(grid.getWidth(), grid.getHeight(), random, (y, walls) -> {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                grid.setWall(x, y, (walls[x >>> 6] & (1L << x)) != 0);
+            }
+        });
+    }
+
+    public static long[] newRow(int width) {
+        return new long[(width + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    public static void fillRowWalls(long[] walls, int width) {
+        for (int x = 0; x < width; x++) {
+            walls[x >>> 6] |= 1L << x;
+        }
+    }
+
+    public static void clearWall(long[] walls, int x) {
+        walls[x >>> 6] &= ~(1L << x);
+    }
+}
@@ -0,0 +1,56 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.Random;
+
+/**
+ * Walks each row of cells from west to east, building up a "run" of cells
+ * joined by east passages. At random the run is closed, and one of its cells
+ * gets a passage north. The top row is one long run. Like the binary tree it is
+ * linear time and only needs the current row.
+ */
+public class SidewinderMazeGenerator implements RowMazeGenerator {
+
+    @Override
+    public void generateRows(int width, int height, Random random, RowSink sink) {
+        int cellsAcross = (width - 1) / 2;
+        int cellsUp = (height - 1) / 2;
+        long[] cellRow = RowMazeGenerator.newRow(width);
+        long[] northRow = RowMazeGenerator.newRow(width);
+
+        RowMazeGenerator.fillRowWalls(cellRow, width);
+        sink.acceptRow(0, cellRow); // Bottom border
+
+        for (int cy = 0; cy < cellsUp; cy++) {
+            RowMazeGenerator.fillRowWalls(cellRow, width);
+            RowMazeGenerator.fillRowWalls(northRow, width);
+            boolean topRow = cy == cellsUp - 1;
+            int runStart = 0;
+            for (int cx = 0; cx < cellsAcross; cx++) {
+                int x = 2 * cx + 1;
+                RowMazeGenerator.clearWall(cellRow, x);
+
+                boolean atEastEdge = cx == cellsAcross - 1;
+                boolean closeRun = atEastEdge || (!topRow && random.nextBoolean());
+                if (closeRun) {
+                    if (!topRow) {
+                        int northCx = runStart + random.nextInt(cx - runStart + 1);
+                        RowMazeGenerator.clearWall(northRow, 2 * northCx + 1);
+                    }
+                    runStart = cx + 1;
+                } else {
+                    RowMazeGenerator.clearWall(cellRow, x + 1);
+                }
+            }
+            sink.acceptRow(2 * cy + 1, cellRow);
+            sink.acceptRow(2 * cy + 2, northRow);
+        }
+
+        // Whatever is left above the last row of cells is wall
+        RowMazeGenerator.fillRowWalls(cellRow, width);
+        for (int y = 2 * cellsUp + 1; y < height; y++) {
+            sink.acceptRow(y, cellRow);
+        }
+    }
+}
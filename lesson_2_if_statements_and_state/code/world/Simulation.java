@@ -0,0 +1,326 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The Simulation holds the maze, the roomba and the policy driving it, with no
+ * window and no timers attached. Each call to step() runs the policy exactly
+ * once, so a whole rescue can be played out with run() as fast as the CPU
+ * allows. GridWorld draws a Simulation on screen by observing it.
+ */
+public class Simulation {
+    public static final int GRID_SIZE = 12;
+
+    private int gridSize;
+    private Grid grid;
+    private WallMasks wallMasks;
+    private Victims victims;
+    private int lastSignalCount = 0;
+    private int roombaX = 1; // Start at bottom left, leave space for a border
+    private int roombaY = 1;
+    private Direction direction = Direction.NORTH;
+    private RobotImpl robot;
+    private Policy policy;
+    private int numSteps = 0;
+    private List<SimulationObserver> observers = new ArrayList<>();
+    private TraceRecorder traceRecorder;
+    private PolicyProfiler policyProfiler;
+
+    // Sensor and detection states
+    private boolean leftSensorTripped, rightSensorTripped, frontSensorTripped, backSensorTripped, personDetected,
+            signaledForHelp, foundHuman, falseSignal;
+
+    enum Direction {
+        NORTH, EAST, SOUTH, WEST
+    }
+
+    public Simulation(long randomSeed, int[][] humanPosition, Policy policy) {
+        this(randomSeed, humanPosition, policy, GRID_SIZE, MazeAlgorithm.DEPTH_FIRST);
+    }
+
+    public Simulation(long randomSeed, int[][] humanPosition, Policy policy, int gridSize,
+            MazeAlgorithm mazeAlgorithm) {
+        this(generateMaze(randomSeed, gridSize, mazeAlgorithm), humanPosition, policy);
+    }
+
+    /**
+     * Runs on a maze that was already generated, for example one handed out by a
+     * MazeCache. The simulation takes over the grid and places the person on it.
+     */
+    public Simulation(Grid maze, int[][] humanPosition, Policy policy) {
+        this.grid = maze;
+        this.gridSize = maze.getWidth();
+        this.policy = policy;
+
+        robot = new RobotImpl();
+
+        victims = new Victims(grid, humanPosition);
+        wallMasks = new WallMasks(grid); // After the people, so their cells are marked too
+    }
+
+    public static Grid generateMaze(long randomSeed, int gridSize, MazeAlgorithm mazeAlgorithm) {
+        Grid maze = new Grid(gridSize, gridSize);
+        mazeAlgorithm.create().generate(maze, new Random(randomSeed)); // Random generator with seed
+        return maze;
+    }
+
+    public void addObserver(SimulationObserver observer) {
+        observers.add(observer);
+    }
+
+    /**
+     * Runs the simulation until every person is rescued, the robot signals for
+     * help in the wrong place, a policy call goes over its time budget (see
+     * setPolicyProfiler), or maxSteps policy steps have passed.
+     */
+    public SimulationResult run(int maxSteps) {
+        while (!isDone(maxSteps)) {
+            update();
+            step();
+        }
+        return getResult();
+    }
+
+    // True once run(maxSteps) would stop.
+    boolean isDone(int maxSteps) {
+        return foundHuman || falseSignal || isTimedOut() || numSteps >= maxSteps;
+    }
+
+    SimulationResult getResult() {
+        SimulationResult.TerminationReason reason = foundHuman ? SimulationResult.TerminationReason.RESCUED
+                : falseSignal ? SimulationResult.TerminationReason.FALSE_SIGNAL
+                        : isTimedOut() ? SimulationResult.TerminationReason.TIMEOUT
+                                : SimulationResult.TerminationReason.STEP_LIMIT;
+        int[] rescueSteps = victims.copyRescueSteps();
+        return new SimulationResult(reason, numSteps, foundHuman ? numSteps : -1, signaledForHelp,
+                signaledForHelp && !falseSignal, victims.size(), rescueSteps);
+    }
+
+    /**
+     * Reads the sensors at the roomba's current position and hands them to the robot.
+     */
+    public void update() {
+        setSensorBits(WallMasks.sense(wallMasks.get(getCell()), direction.ordinal()));
+        robot.updateSensors(leftSensorTripped, rightSensorTripped, frontSensorTripped, backSensorTripped, personDetected);
+        notifyObservers();
+    }
+
+    /**
+     * Runs the policy once and carries out the next queued command.
+     */
+    public void step() {
+        if (traceRecorder != null) {
+            traceRecorder.beforeStep(this);
+        }
+
+        if (policyProfiler != null) {
+            policyProfiler.execute(policy, robot);
+        } else {
+            policy.execute(robot);
+        }
+
+        int signalCount = robot.getNumSignals();
+        boolean signaledThisStep = signalCount != lastSignalCount;
+        lastSignalCount = signalCount;
+
+        final byte command = robot.poll();
+        applyStep(signaledThisStep, command);
+
+        if (traceRecorder != null) {
+            traceRecorder.afterStep(this, signaledThisStep, command);
+        }
+        notifyObservers();
+    }
+
+    // Everything a step does once the policy has run. Replays call this directly.
+    void applyStep(boolean signaledThisStep, byte command) {
+        if (!foundHuman) {
+            numSteps++;
+        }
+
+        // A signal rescues the person the roomba is standing on. A signal anywhere
+        // else is a false alarm, and after a false alarm nobody answers any more.
+        if (signaledThisStep && !falseSignal) {
+            int victim = victims.victimAt(roombaX, roombaY);
+            if (victim >= 0) {
+                victims.rescue(victim, numSteps);
+                foundHuman = victims.allRescued();
+            } else {
+                falseSignal = true;
+            }
+        }
+        signaledForHelp |= signaledThisStep;
+
+        if (command != RobotImpl.NO_COMMAND) {
+            switch (RobotImpl.CommandType.fromCode(command)) {
+                case MOVE_FORWARD:
+                    moveForward();
+                    break;
+                case ROTATE_LEFT:
+                    rotateLeft();
+                    break;
+                case ROTATE_RIGHT:
+                    rotateRight();
+                    break;
+                default:
+                    throw new RuntimeException("Unexpected case.");
+            }
+        }
+    }
+
+    /**
+     * Times every policy call from now on and ends run() with TIMEOUT once a
+     * call goes over the profiler's budget.
+     */
+    public void setPolicyProfiler(PolicyProfiler policyProfiler) {
+        this.policyProfiler = policyProfiler;
+    }
+
+    private boolean isTimedOut() {
+        return policyProfiler != null && policyProfiler.isTimedOut();
+    }
+
+    /**
+     * Records every step from now on into the given trace, see TraceRecorder.
+     */
+    public void setTraceRecorder(TraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+    }
+
+    // Sensor readings packed as bits: left, right, front, back, person.
+    int getSensorBits() {
+        return (leftSensorTripped ? 1 : 0) | (rightSensorTripped ? 2 : 0) | (frontSensorTripped ? 4 : 0)
+                | (backSensorTripped ? 8 : 0) | (personDetected ? 16 : 0);
+    }
+
+    void setSensorBits(int bits) {
+        leftSensorTripped = (bits & 1) != 0;
+        rightSensorTripped = (bits & 2) != 0;
+        frontSensorTripped = (bits & 4) != 0;
+        backSensorTripped = (bits & 8) != 0;
+        personDetected = (bits & 16) != 0;
+    }
+
+    // Puts the roomba back into a saved state. Replays use this to jump to a checkpoint.
+    void restore(int roombaX, int roombaY, Direction direction, int numSteps, boolean signaledForHelp,
+            boolean falseSignal, int sensorBits, int numRescued, int[] rescueOrder, int[] rescueSteps) {
+        this.roombaX = roombaX;
+        this.roombaY = roombaY;
+        this.direction = direction;
+        this.numSteps = numSteps;
+        this.signaledForHelp = signaledForHelp;
+        this.falseSignal = falseSignal;
+        setSensorBits(sensorBits);
+        victims.restore(numRescued, rescueOrder, rescueSteps);
+        foundHuman = victims.allRescued();
+    }
+
+    boolean didFalseSignal() {
+        return falseSignal;
+    }
+
+    void notifyObservers() {
+        for (SimulationObserver observer : observers) {
+            observer.onUpdate(this);
+        }
+    }
+
+    private void moveForward() {
+        int nextX = roombaX;
+        int nextY = roombaY;
+        switch (direction) {
+            case NORTH -> nextY++;
+            case EAST -> nextX++;
+            case SOUTH -> nextY--;
+            case WEST -> nextX--;
+        }
+        if (grid.isOpen(nextX, nextY)) {
+            roombaX = nextX;
+            roombaY = nextY;
+        }
+    }
+
+    private void rotateLeft() {
+        direction = switch (direction) {
+            case NORTH -> Direction.WEST;
+            case WEST -> Direction.SOUTH;
+            case SOUTH -> Direction.EAST;
+            case EAST -> Direction.NORTH;
+        };
+    }
+
+    private void rotateRight() {
+        direction = switch (direction) {
+            case NORTH -> Direction.EAST;
+            case EAST -> Direction.SOUTH;
+            case SOUTH -> Direction.WEST;
+            case WEST -> Direction.NORTH;
+        };
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    public int getRoombaX() {
+        return roombaX;
+    }
+
+    public int getRoombaY() {
+        return roombaY;
+    }
+
+    // The grid index of the roomba's cell.
+    int getCell() {
+        return grid.index(roombaX, roombaY);
+    }
+
+    Direction getDirection() {
+        return direction;
+    }
+
+    public int getNumSteps() {
+        return numSteps;
+    }
+
+    public boolean isLeftSensorTripped() {
+        return leftSensorTripped;
+    }
+
+    public boolean isRightSensorTripped() {
+        return rightSensorTripped;
+    }
+
+    public boolean isFrontSensorTripped() {
+        return frontSensorTripped;
+    }
+
+    public boolean isBackSensorTripped() {
+        return backSensorTripped;
+    }
+
+    public boolean isPersonDetected() {
+        return personDetected;
+    }
+
+    public boolean didSignalForHelp() {
+        return signaledForHelp;
+    }
+
+    public Victims getVictims() {
+        return victims;
+    }
+
+    // True once every person has been rescued.
+    public boolean didFindHuman() {
+        return foundHuman;
+    }
+}
@@ -0,0 +1,115 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a Simulation on its own thread at a set number of steps per second,
+ * from slow motion up to as fast as the policy allows. Each tick reads the
+ * sensors, runs the policy once and reads the sensors again, so the screen
+ * always shows what the policy will see next.
+ *
+ * Nothing else may touch the simulation while the loop runs. Other threads
+ * read getSnapshot() instead. A new snapshot is published after every step,
+ * but at most once per PUBLISH_INTERVAL_NANOS when the loop is running flat
+ * out, so a fast loop does not spend its time copying state nobody will see.
+ */
+public class SimulationLoop {
+    public static final double UNLIMITED = Double.POSITIVE_INFINITY;
+
+    private static final long PUBLISH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MAX_STEPS_BEHIND = 4; // Catch up at most this many late steps, then drop the rest
+
+    private final Simulation simulation;
+    private final Thread thread;
+
+    private volatile double stepsPerSecond;
+    private volatile boolean paused;
+    private volatile boolean running;
+    private volatile SimulationSnapshot snapshot;
+
+    public SimulationLoop(Simulation simulation, double stepsPerSecond) {
+        this.simulation = simulation;
+        setStepsPerSecond(stepsPerSecond);
+        simulation.update();
+        this.snapshot = SimulationSnapshot.of(simulation);
+        this.thread = new Thread(this::loop, "simulation-loop");
+        thread.setDaemon(true); // Closing the window should end the program
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    public SimulationSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public double getStepsPerSecond() {
+        return stepsPerSecond;
+    }
+
+    /**
+     * Changes the step rate. UNLIMITED runs steps back to back.
+     */
+    public void setStepsPerSecond(double stepsPerSecond) {
+        if (!(stepsPerSecond > 0)) {
+            throw new IllegalArgumentException("Steps per second must be positive. Got " + stepsPerSecond);
+        }
+        this.stepsPerSecond = stepsPerSecond;
+        LockSupport.unpark(thread); // Don't sit out the rest of a long slow-motion wait
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        LockSupport.unpark(thread);
+    }
+
+    private void loop() {
+        long lastStep = System.nanoTime();
+        long lastPublish = lastStep;
+        while (running) {
+            if (paused) {
+                snapshot = SimulationSnapshot.of(simulation); // Show exactly where the loop stopped
+                LockSupport.parkNanos(MAX_PARK_NANOS);
+                lastStep = System.nanoTime();
+                continue;
+            }
+
+            // Read the rate every time around, so a speed change takes effect at once
+            double rate = stepsPerSecond;
+            long stepNanos = rate == UNLIMITED ? 0 : (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            long due = lastStep + stepNanos;
+            long now = System.nanoTime();
+            if (now - due < 0) {
+                // Not time yet. Parking can end early, so check again afterwards.
+                LockSupport.parkNanos(Math.min(due - now, MAX_PARK_NANOS));
+                continue;
+            }
+
+            simulation.step();
+            simulation.update();
+
+            // A policy slower than the step rate should not cause a burst of steps later
+            lastStep = Math.max(due, now - MAX_STEPS_BEHIND * stepNanos);
+            now = System.nanoTime();
+            if (now - lastPublish >= PUBLISH_INTERVAL_NANOS || lastStep + stepNanos - now > 0) {
+                snapshot = SimulationSnapshot.of(simulation);
+                lastPublish = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+public interface SimulationObserver {
+    public void onUpdate(Simulation simulation);
+}
@@ -0,0 +1,69 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+public class SimulationResult {
+    public enum TerminationReason {
+        RESCUED, FALSE_SIGNAL, STEP_LIMIT, TIMEOUT
+    };
+
+    private TerminationReason reason;
+    private int numSteps;
+    private int stepsToRescue;
+    private boolean signaledForHelp;
+    private boolean signaledCorrectly;
+    private int numVictims;
+    private int[] rescueSteps;
+
+    public SimulationResult(TerminationReason reason, int numSteps, int stepsToRescue, boolean signaledForHelp,
+            boolean signaledCorrectly, int numVictims, int[] rescueSteps) {
+        this.reason = reason;
+        this.numSteps = numSteps;
+        this.stepsToRescue = stepsToRescue;
+        this.signaledForHelp = signaledForHelp;
+        this.signaledCorrectly = signaledCorrectly;
+        this.numVictims = numVictims;
+        this.rescueSteps = rescueSteps;
+    }
+
+    public TerminationReason getReason() {
+        return reason;
+    }
+
+    public int getNumSteps() {
+        return numSteps;
+    }
+
+    // Steps until the last person was rescued, -1 when someone never was.
+    public int getStepsToRescue() {
+        return stepsToRescue;
+    }
+
+    public boolean didSignalForHelp() {
+        return signaledForHelp;
+    }
+
+    // True when the robot signaled and every signal was on a person.
+    public boolean didSignalCorrectly() {
+        return signaledCorrectly;
+    }
+
+    public int getNumVictims() {
+        return numVictims;
+    }
+
+    public int getNumRescued() {
+        return rescueSteps.length;
+    }
+
+    // The step each rescue happened on, in the order they happened.
+    public int getRescueStep(int i) {
+        return rescueSteps[i];
+    }
+
+    public String toString() {
+        return String.format("SimulationResult(%s, steps=%d, stepsToRescue=%d, rescued=%d/%d, signaled=%b, correct=%b)",
+                reason.name(), numSteps, stepsToRescue, getNumRescued(), numVictims, signaledForHelp,
+                signaledCorrectly);
+    }
+}
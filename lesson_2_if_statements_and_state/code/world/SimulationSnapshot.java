@@ -0,0 +1,94 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+/**
+ * An immutable copy of everything GridWorld draws about a Simulation at one
+ * moment. The thread running the simulation takes snapshots and the screen
+ * reads them, so drawing never touches the live simulation.
+ *
+ * People rescued are only counted here. Victims keeps its rescue log in order
+ * and never rewrites an entry while a simulation is running, so the first
+ * getNumRescued() entries of that log are safe to read alongside a snapshot.
+ */
+public final class SimulationSnapshot {
+    private final int roombaX;
+    private final int roombaY;
+    private final Simulation.Direction direction;
+    private final int sensorBits;
+    private final int numSteps;
+    private final boolean signaledForHelp;
+    private final int numRescued;
+
+    private SimulationSnapshot(Simulation simulation) {
+        roombaX = simulation.getRoombaX();
+        roombaY = simulation.getRoombaY();
+        direction = simulation.getDirection();
+        sensorBits = simulation.getSensorBits();
+        numSteps = simulation.getNumSteps();
+        signaledForHelp = simulation.didSignalForHelp();
+        numRescued = simulation.getVictims().getNumRescued();
+    }
+
+    // Must be called on the thread that is stepping the simulation.
+    static SimulationSnapshot of(Simulation simulation) {
+        return new SimulationSnapshot(simulation);
+    }
+
+    /**
+     * True when the two snapshots would be drawn the same way.
+     */
+    public boolean looksLike(SimulationSnapshot other) {
+        return other != null && roombaX == other.roombaX && roombaY == other.roombaY && direction == other.direction
+                && sensorBits == other.sensorBits && numSteps == other.numSteps
+                && signaledForHelp == other.signaledForHelp && numRescued == other.numRescued;
+    }
+
+    public int getRoombaX() {
+        return roombaX;
+    }
+
+    public int getRoombaY() {
+        return roombaY;
+    }
+
+    Simulation.Direction getDirection() {
+        return direction;
+    }
+
+    int getSensorBits() {
+        return sensorBits;
+    }
+
+    public boolean isLeftSensorTripped() {
+        return (sensorBits & 1) != 0;
+    }
+
+    public boolean isRightSensorTripped() {
+        return (sensorBits & 2) != 0;
+    }
+
+    public boolean isFrontSensorTripped() {
+        return (sensorBits & 4) != 0;
+    }
+
+    public boolean isBackSensorTripped() {
+        return (sensorBits & 8) != 0;
+    }
+
+    public boolean isPersonDetected() {
+        return (sensorBits & 16) != 0;
+    }
+
+    public int getNumSteps() {
+        return numSteps;
+    }
+
+    public boolean didSignalForHelp() {
+        return signaledForHelp;
+    }
+
+    public int getNumRescued() {
+        return numRescued;
+    }
+}
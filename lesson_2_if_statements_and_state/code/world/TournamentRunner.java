@@ -0,0 +1,180 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Runs every policy against every maze on all cores and collects a PolicyStats
+ * per policy. Maze i is the maze built from seeds[i] with the person at
+ * humanPositions[i].
+ *
+ * Each run builds its own Policy instance and Simulation (with its own Random,
+ * RobotImpl and grid), so runs never share mutable state and the results do
+ * not depend on how the work gets split across threads.
+ *
+ * With setPolicyTimeBudget(), every policy call is also timed by a
+ * PolicyProfiler, runs that go over budget end as TIMEOUT, and each policy's
+ * PolicyStats includes its latency percentiles and allocation per step.
+ *
+ * Before any policy runs, a PathOracle works out the shortest possible rescue
+ * for every maze, once, and each policy's step efficiency is scored against it.
+ */
+public class TournamentRunner {
+    private List<Class<? extends Policy>> policies;
+    private long[] seeds;
+    private int[][] humanPositions;
+    private int gridSize;
+    private MazeAlgorithm mazeAlgorithm;
+    private int maxSteps;
+    private MazeCache mazeCache;
+    private long policyTimeBudgetNanos = -1; // -1 means policies are not profiled
+    private int[] optimalSteps; // Shortest possible rescue per maze, filled in by the first run()
+
+    public TournamentRunner(List<Class<? extends Policy>> policies, long[] seeds, int[][] humanPositions,
+            int maxSteps) {
+        this(policies, seeds, humanPositions, Simulation.GRID_SIZE, MazeAlgorithm.DEPTH_FIRST, maxSteps);
+    }
+
+    public TournamentRunner(List<Class<? extends Policy>> policies, long[] seeds, int[][] humanPositions,
+            int gridSize, MazeAlgorithm mazeAlgorithm, int maxSteps) {
+        if (seeds.length != humanPositions.length) {
+            throw new IllegalArgumentException("Expected one human position per seed. Got " + seeds.length
+                    + " seeds and " + humanPositions.length + " positions.");
+        }
+        this.policies = policies;
+        this.seeds = seeds;
+        this.humanPositions = humanPositions;
+        this.gridSize = gridSize;
+        this.mazeAlgorithm = mazeAlgorithm;
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Shares mazes between policies (and, with a cache directory, between runs)
+     * instead of generating each maze again for every policy.
+     */
+    public void setMazeCache(MazeCache mazeCache) {
+        this.mazeCache = mazeCache;
+    }
+
+    /**
+     * Profiles every policy call and ends a run when one call takes longer than
+     * budgetNanos. A budget of 0 profiles without ever ending a run.
+     */
+    public void setPolicyTimeBudget(long budgetNanos) {
+        if (budgetNanos < 0) {
+            throw new IllegalArgumentException("Time budget can't be negative. Got " + budgetNanos);
+        }
+        this.policyTimeBudgetNanos = budgetNanos;
+    }
+
+    public List<PolicyStats> run() {
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            if (optimalSteps == null) {
+                int[] steps = new int[seeds.length];
+                pool.submit(() -> IntStream.range(0, seeds.length).parallel()
+                        .forEach(i -> steps[i] = findOptimalSteps(i))).get();
+                optimalSteps = steps;
+            }
+
+            List<PolicyStats> stats = new ArrayList<>();
+            for (Class<? extends Policy> policyClass : policies) {
+                SimulationResult[] results = new SimulationResult[seeds.length];
+                PolicyProfiler[] profilers = new PolicyProfiler[seeds.length];
+                // Each task only writes its own slot of the results and profilers arrays.
+                pool.submit(() -> IntStream.range(0, seeds.length).parallel()
+                        .forEach(i -> results[i] = runOne(policyClass, i, profilers))).get();
+                stats.add(new PolicyStats(policyClass.getSimpleName(), results, mergeProfiles(profilers),
+                        optimalSteps));
+            }
+            return stats;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Tournament was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("A simulation failed.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private int findOptimalSteps(int mazeIndex) {
+        Grid maze = mazeCache != null ? mazeCache.get(seeds[mazeIndex], gridSize, mazeAlgorithm)
+                : Simulation.generateMaze(seeds[mazeIndex], gridSize, mazeAlgorithm);
+        int x = humanPositions[mazeIndex][0];
+        int y = humanPositions[mazeIndex][1];
+        maze.setPerson(x, y); // Same as the simulation, in case the person stands where a wall was
+        return new PathOracle(maze).getStepsToRescue(x, y);
+    }
+
+    // Null when policies are not profiled.
+    private static PolicyProfiler mergeProfiles(PolicyProfiler[] profilers) {
+        if (profilers.length == 0 || profilers[0] == null) {
+            return null;
+        }
+        for (int i = 1; i < profilers.length; i++) {
+            profilers[0].add(profilers[i]);
+        }
+        return profilers[0];
+    }
+
+    private SimulationResult runOne(Class<? extends Policy> policyClass, int mazeIndex, PolicyProfiler[] profilers) {
+        Policy policy;
+        try {
+            policy = policyClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(policyClass.getName() + " needs a public no-argument constructor.", e);
+        }
+        int[][] humanPosition = new int[][] { humanPositions[mazeIndex] };
+        Simulation simulation;
+        if (mazeCache != null) {
+            Grid maze = mazeCache.get(seeds[mazeIndex], gridSize, mazeAlgorithm);
+            simulation = new Simulation(maze, humanPosition, policy);
+        } else {
+            simulation = new Simulation(seeds[mazeIndex], humanPosition, policy, gridSize, mazeAlgorithm);
+        }
+        if (policyTimeBudgetNanos < 0) {
+            return simulation.run(maxSteps);
+        }
+        try (PolicyProfiler profiler = new PolicyProfiler(policyClass.getSimpleName(), policyTimeBudgetNanos)) {
+            profilers[mazeIndex] = profiler;
+            simulation.setPolicyProfiler(profiler);
+            return simulation.run(maxSteps);
+        }
+    }
+
+    /**
+     * Picks numMazes random seeds and, for each one, a random maze cell for the
+     * person (maze cells sit on odd coordinates).
+     */
+    public static TournamentRunner withRandomMazes(List<Class<? extends Policy>> policies, int numMazes,
+            long tournamentSeed, int maxSteps) {
+        return withRandomMazes(policies, numMazes, tournamentSeed, Simulation.GRID_SIZE, MazeAlgorithm.DEPTH_FIRST,
+                maxSteps);
+    }
+
+    public static TournamentRunner withRandomMazes(List<Class<? extends Policy>> policies, int numMazes,
+            long tournamentSeed, int gridSize, MazeAlgorithm mazeAlgorithm, int maxSteps) {
+        Random random = new Random(tournamentSeed);
+        long[] seeds = new long[numMazes];
+        int[][] humanPositions = new int[numMazes][];
+        int cellsPerSide = (gridSize - 1) / 2;
+        for (int i = 0; i < numMazes; i++) {
+            seeds[i] = random.nextLong();
+            int x, y;
+            do {
+                x = 1 + 2 * random.nextInt(cellsPerSide);
+                y = 1 + 2 * random.nextInt(cellsPerSide);
+            } while (x == 1 && y == 1); // Don't start on top of the person
+            humanPositions[i] = new int[] { x, y };
+        }
+        return new TournamentRunner(policies, seeds, humanPositions, gridSize, mazeAlgorithm, maxSteps);
+    }
+}
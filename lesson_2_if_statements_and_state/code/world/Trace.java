@@ -0,0 +1,164 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A recorded run, as written by TraceRecorder. It stores what is needed to
+ * rebuild the maze (seed, size, algorithm, people), then one byte per step:
+ *
+ *   bits 0-1  command code popped from the robot, plus one (0 = no command)
+ *   bit 2     sensors changed, and the next byte is the XOR with the last sensor bits
+ *   bit 3     the robot signaled for help during this step
+ *
+ * Every checkpointInterval steps there is a checkpoint with the full roomba
+ * state and where that step starts in the byte stream, so a replay can jump to
+ * any step without running the policy or decoding the steps before it. The
+ * rescue log (who was rescued on which step) is stored once at the end, and a
+ * checkpoint only records how many of its entries had happened by then.
+ */
+public class Trace {
+    static final int MAGIC = 0x54524143; // "TRAC"
+    static final int VERSION = 2;
+
+    static final int COMMAND_MASK = 0x3;
+    static final int SENSORS_CHANGED = 0x4;
+    static final int SIGNALED = 0x8;
+
+    static final int FLAG_SIGNALED = 0x1;
+    static final int FLAG_FALSE_SIGNAL = 0x2;
+
+    final long seed;
+    final int gridSize;
+    final MazeAlgorithm mazeAlgorithm;
+    final int[][] humanPosition;
+    final int numSteps;
+    final int checkpointInterval;
+    final byte[] steps;
+    final int[] rescueOrder;
+    final int[] rescueSteps;
+
+    // Checkpoint i holds the state after i * checkpointInterval steps
+    final int[] checkpointOffset;
+    final int[] checkpointX;
+    final int[] checkpointY;
+    final byte[] checkpointDirection;
+    final int[] checkpointNumSteps;
+    final byte[] checkpointFlags;
+    final byte[] checkpointSensors;
+    final int[] checkpointNumRescued;
+
+    Trace(long seed, int gridSize, MazeAlgorithm mazeAlgorithm, int[][] humanPosition, int numSteps,
+            int checkpointInterval, byte[] steps, int[] rescueOrder, int[] rescueSteps, int numCheckpoints) {
+        this.seed = seed;
+        this.gridSize = gridSize;
+        this.mazeAlgorithm = mazeAlgorithm;
+        this.humanPosition = humanPosition;
+        this.numSteps = numSteps;
+        this.checkpointInterval = checkpointInterval;
+        this.steps = steps;
+        this.rescueOrder = rescueOrder;
+        this.rescueSteps = rescueSteps;
+        checkpointOffset = new int[numCheckpoints];
+        checkpointX = new int[numCheckpoints];
+        checkpointY = new int[numCheckpoints];
+        checkpointDirection = new byte[numCheckpoints];
+        checkpointNumSteps = new int[numCheckpoints];
+        checkpointFlags = new byte[numCheckpoints];
+        checkpointSensors = new byte[numCheckpoints];
+        checkpointNumRescued = new int[numCheckpoints];
+    }
+
+    public int getNumSteps() {
+        return numSteps;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(seed);
+            out.writeInt(gridSize);
+            out.writeByte(mazeAlgorithm.ordinal());
+            out.writeInt(humanPosition.length);
+            for (int[] position : humanPosition) {
+                out.writeInt(position[0]);
+                out.writeInt(position[1]);
+            }
+            out.writeInt(numSteps);
+            out.writeInt(checkpointInterval);
+            out.writeInt(steps.length);
+            out.write(steps);
+            out.writeInt(rescueOrder.length);
+            for (int i = 0; i < rescueOrder.length; i++) {
+                out.writeInt(rescueOrder[i]);
+                out.writeInt(rescueSteps[i]);
+            }
+            out.writeInt(checkpointOffset.length);
+            for (int i = 0; i < checkpointOffset.length; i++) {
+                out.writeInt(checkpointOffset[i]);
+                out.writeInt(checkpointX[i]);
+                out.writeInt(checkpointY[i]);
+                out.writeByte(checkpointDirection[i]);
+                out.writeInt(checkpointNumSteps[i]);
+                out.writeByte(checkpointFlags[i]);
+                out.writeByte(checkpointSensors[i]);
+                out.writeInt(checkpointNumRescued[i]);
+            }
+        }
+    }
+
+    public static Trace read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a trace file.");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported trace version " + version + " in " + file);
+            }
+            long seed = in.readLong();
+            int gridSize = in.readInt();
+            MazeAlgorithm mazeAlgorithm = MazeAlgorithm.values()[in.readByte()];
+            int[][] humanPosition = new int[in.readInt()][];
+            for (int i = 0; i < humanPosition.length; i++) {
+                humanPosition[i] = new int[] { in.readInt(), in.readInt() };
+            }
+            int numSteps = in.readInt();
+            int checkpointInterval = in.readInt();
+            byte[] steps = new byte[in.readInt()];
+            in.readFully(steps);
+            int[] rescueOrder = new int[in.readInt()];
+            int[] rescueSteps = new int[rescueOrder.length];
+            for (int i = 0; i < rescueOrder.length; i++) {
+                rescueOrder[i] = in.readInt();
+                rescueSteps[i] = in.readInt();
+            }
+
+            Trace trace = new Trace(seed, gridSize, mazeAlgorithm, humanPosition, numSteps, checkpointInterval, steps,
+                    rescueOrder, rescueSteps, in.readInt());
+            for (int i = 0; i < trace.checkpointOffset.length; i++) {
+                trace.checkpointOffset[i] = in.readInt();
+                trace.checkpointX[i] = in.readInt();
+                trace.checkpointY[i] = in.readInt();
+                trace.checkpointDirection[i] = in.readByte();
+                trace.checkpointNumSteps[i] = in.readInt();
+                trace.checkpointFlags[i] = in.readByte();
+                trace.checkpointSensors[i] = in.readByte();
+                trace.checkpointNumRescued[i] = in.readInt();
+            }
+            return trace;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.Arrays;
+
+/**
+ * Records a Simulation step by step into a compact Trace. Attach it with
+ * Simulation.setTraceRecorder() before the first step. The recorder needs the
+ * maze settings because the trace rebuilds the maze from its seed instead of
+ * storing it.
+ */
+public class TraceRecorder {
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 256;
+
+    private long seed;
+    private int gridSize;
+    private MazeAlgorithm mazeAlgorithm;
+    private int[][] humanPosition;
+    private int checkpointInterval;
+
+    private byte[] steps = new byte[1024];
+    private int length = 0;
+    private int numSteps = 0;
+    private int lastSensorBits = 0;
+    private int pendingSensorBits = 0;
+
+    private int numRescued = 0;
+    private int[] rescueOrder = new int[4];
+    private int[] rescueSteps = new int[4];
+
+    private int numCheckpoints = 0;
+    private int[] checkpoints = new int[16 * 7]; // offset, x, y, direction, numSteps, flags | sensors << 8, rescued
+
+    public TraceRecorder(long seed, int gridSize, MazeAlgorithm mazeAlgorithm, int[][] humanPosition) {
+        this(seed, gridSize, mazeAlgorithm, humanPosition, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    public TraceRecorder(long seed, int gridSize, MazeAlgorithm mazeAlgorithm, int[][] humanPosition,
+            int checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive. Got " + checkpointInterval);
+        }
+        this.seed = seed;
+        this.gridSize = gridSize;
+        this.mazeAlgorithm = mazeAlgorithm;
+        this.humanPosition = humanPosition;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    void beforeStep(Simulation simulation) {
+        if (numSteps % checkpointInterval == 0) {
+            if ((numCheckpoints + 1) * 7 > checkpoints.length) {
+                checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+            }
+            int flags = (simulation.didSignalForHelp() ? Trace.FLAG_SIGNALED : 0)
+                    | (simulation.didFalseSignal() ? Trace.FLAG_FALSE_SIGNAL : 0);
+            int i = numCheckpoints * 7;
+            checkpoints[i] = length;
+            checkpoints[i + 1] = simulation.getRoombaX();
+            checkpoints[i + 2] = simulation.getRoombaY();
+            checkpoints[i + 3] = simulation.getDirection().ordinal();
+            checkpoints[i + 4] = simulation.getNumSteps();
+            checkpoints[i + 5] = flags | (lastSensorBits << 8);
+            checkpoints[i + 6] = numRescued;
+            numCheckpoints++;
+        }
+        // The sensors the policy is about to see
+        pendingSensorBits = simulation.getSensorBits();
+    }
+
+    void afterStep(Simulation simulation, boolean signaled, byte command) {
+        int b = command + 1; // NO_COMMAND (-1) becomes 0
+        if (signaled) {
+            b |= Trace.SIGNALED;
+        }
+        boolean sensorsChanged = pendingSensorBits != lastSensorBits;
+        if (sensorsChanged) {
+            b |= Trace.SENSORS_CHANGED;
+        }
+
+        if (length + 2 > steps.length) {
+            steps = Arrays.copyOf(steps, steps.length * 2);
+        }
+        steps[length++] = (byte) b;
+        if (sensorsChanged) {
+            steps[length++] = (byte) (pendingSensorBits ^ lastSensorBits);
+            lastSensorBits = pendingSensorBits;
+        }
+        numSteps++;
+
+        Victims victims = simulation.getVictims();
+        while (numRescued < victims.getNumRescued()) {
+            if (numRescued == rescueOrder.length) {
+                rescueOrder = Arrays.copyOf(rescueOrder, numRescued * 2);
+                rescueSteps = Arrays.copyOf(rescueSteps, numRescued * 2);
+            }
+            rescueOrder[numRescued] = victims.getRescuedVictim(numRescued);
+            rescueSteps[numRescued] = victims.getRescueStep(numRescued);
+            numRescued++;
+        }
+    }
+
+    public int getNumSteps() {
+        return numSteps;
+    }
+
+    public Trace toTrace() {
+        Trace trace = new Trace(seed, gridSize, mazeAlgorithm, humanPosition, numSteps, checkpointInterval,
+                Arrays.copyOf(steps, length), Arrays.copyOf(rescueOrder, numRescued),
+                Arrays.copyOf(rescueSteps, numRescued), numCheckpoints);
+        for (int c = 0; c < numCheckpoints; c++) {
+            int i = c * 7;
+            trace.checkpointOffset[c] = checkpoints[i];
+            trace.checkpointX[c] = checkpoints[i + 1];
+            trace.checkpointY[c] = checkpoints[i + 2];
+            trace.checkpointDirection[c] = (byte) checkpoints[i + 3];
+            trace.checkpointNumSteps[c] = checkpoints[i + 4];
+            trace.checkpointFlags[c] = (byte) (checkpoints[i + 5] & 0xFF);
+            trace.checkpointSensors[c] = (byte) (checkpoints[i + 5] >>> 8);
+            trace.checkpointNumRescued[c] = checkpoints[i + 6];
+        }
+        return trace;
+    }
+}
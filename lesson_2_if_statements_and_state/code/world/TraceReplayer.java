@@ -0,0 +1,91 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+/**
+ * Plays a Trace back on a Simulation without ever running the policy. The
+ * maze is rebuilt from the trace's seed and each step applies the recorded
+ * command, signal and sensor readings.
+ *
+ * seek() jumps straight to the checkpoint at or before the target step and then
+ * decodes at most checkpointInterval steps, so seeking is just as cheap at step
+ * 4000 as at step 4.
+ */
+public class TraceReplayer {
+    private Trace trace;
+    private Simulation simulation;
+    private int step;
+    private int offset;
+    private int lastSensorBits;
+
+    public TraceReplayer(Trace trace) {
+        this.trace = trace;
+        Grid maze = Simulation.generateMaze(trace.seed, trace.gridSize, trace.mazeAlgorithm);
+        // The policy never runs during a replay
+        this.simulation = new Simulation(maze, trace.humanPosition, robot -> {
+        });
+        seek(0);
+    }
+
+    public Simulation getSimulation() {
+        return simulation;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    public int getNumSteps() {
+        return trace.numSteps;
+    }
+
+    /**
+     * Moves the replay to the state right after the given number of steps.
+     */
+    public void seek(int target) {
+        target = Math.max(0, Math.min(target, trace.numSteps));
+        if (trace.checkpointOffset.length > 0) {
+            int c = Math.min(target / trace.checkpointInterval, trace.checkpointOffset.length - 1);
+            int flags = trace.checkpointFlags[c];
+            lastSensorBits = trace.checkpointSensors[c];
+            simulation.restore(trace.checkpointX[c], trace.checkpointY[c],
+                    Simulation.Direction.values()[trace.checkpointDirection[c]], trace.checkpointNumSteps[c],
+                    (flags & Trace.FLAG_SIGNALED) != 0, (flags & Trace.FLAG_FALSE_SIGNAL) != 0, lastSensorBits,
+                    trace.checkpointNumRescued[c], trace.rescueOrder, trace.rescueSteps);
+            step = c * trace.checkpointInterval;
+            offset = trace.checkpointOffset[c];
+        }
+        while (step < target) {
+            applyNextStep();
+        }
+        simulation.notifyObservers();
+    }
+
+    /**
+     * Replays one more step. Returns false once the end of the trace is reached.
+     */
+    public boolean stepForward() {
+        if (step >= trace.numSteps) {
+            return false;
+        }
+        applyNextStep();
+        simulation.notifyObservers();
+        return true;
+    }
+
+    public void stepBackward() {
+        seek(step - 1);
+    }
+
+    private void applyNextStep() {
+        int b = trace.steps[offset++];
+        if ((b & Trace.SENSORS_CHANGED) != 0) {
+            lastSensorBits ^= trace.steps[offset++];
+        }
+        byte command = (byte) ((b & Trace.COMMAND_MASK) - 1);
+
+        simulation.setSensorBits(lastSensorBits);
+        simulation.applyStep((b & Trace.SIGNALED) != 0, command);
+        step++;
+    }
+}
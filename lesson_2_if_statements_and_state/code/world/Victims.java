@@ -0,0 +1,119 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.Arrays;
+
+/**
+ * The people waiting to be rescued in one maze. A CellIndex maps each cell to
+ * the victim standing there, so checking a help signal costs the same with one
+ * victim or thousands. Rescues are logged in order as they happen, together
+ * with the step they happened on, so progress never needs a scan over victims.
+ */
+public class Victims {
+    private final int[] victimX;
+    private final int[] victimY;
+    private final CellIndex index;
+    private final int width;
+
+    private final boolean[] rescued;
+    private final int[] rescueOrder; // Victim ids in the order they were rescued
+    private final int[] rescueStep; // The step each of those rescues happened on
+    private int numRescued = 0;
+
+    /**
+     * Places every person on the grid. Positions are {x, y} pairs.
+     */
+    public Victims(Grid grid, int[][] positions) {
+        int n = positions.length;
+        victimX = new int[n];
+        victimY = new int[n];
+        index = new CellIndex(n);
+        width = grid.getWidth();
+        rescued = new boolean[n];
+        rescueOrder = new int[n];
+        rescueStep = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            victimX[i] = positions[i][0];
+            victimY[i] = positions[i][1];
+            if (index.putIfAbsent(grid.index(victimX[i], victimY[i]), i) != i) {
+                throw new IllegalArgumentException(
+                        "Two people at (" + victimX[i] + ", " + victimY[i] + "). Each cell can hold one person.");
+            }
+            grid.setPerson(victimX[i], victimY[i]);
+        }
+    }
+
+    // The victim at (x, y), or -1.
+    public int victimAt(int x, int y) {
+        return index.get(y * width + x);
+    }
+
+    /**
+     * Marks the victim as rescued on the given step. Returns false if they
+     * already were.
+     */
+    boolean rescue(int victim, int step) {
+        if (rescued[victim]) {
+            return false;
+        }
+        rescued[victim] = true;
+        rescueOrder[numRescued] = victim;
+        rescueStep[numRescued] = step;
+        numRescued++;
+        return true;
+    }
+
+    // Rolls the rescue log back or forward to the first numRescued entries of a saved log.
+    void restore(int numRescued, int[] savedOrder, int[] savedSteps) {
+        for (int i = 0; i < this.numRescued; i++) {
+            rescued[rescueOrder[i]] = false;
+        }
+        this.numRescued = 0;
+        for (int i = 0; i < numRescued; i++) {
+            rescue(savedOrder[i], savedSteps[i]);
+        }
+    }
+
+    public int size() {
+        return victimX.length;
+    }
+
+    public int getX(int victim) {
+        return victimX[victim];
+    }
+
+    public int getY(int victim) {
+        return victimY[victim];
+    }
+
+    public boolean isRescued(int victim) {
+        return rescued[victim];
+    }
+
+    public int getNumRescued() {
+        return numRescued;
+    }
+
+    public boolean allRescued() {
+        return numRescued == victimX.length;
+    }
+
+    // The i-th victim to be rescued, and the step it happened on.
+    public int getRescuedVictim(int i) {
+        return rescueOrder[i];
+    }
+
+    public int getRescueStep(int i) {
+        return rescueStep[i];
+    }
+
+    int[] copyRescueOrder() {
+        return Arrays.copyOf(rescueOrder, numRescued);
+    }
+
+    int[] copyRescueSteps() {
+        return Arrays.copyOf(rescueStep, numRescued);
+    }
+}
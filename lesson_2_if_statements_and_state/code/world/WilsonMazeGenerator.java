@@ -0,0 +1,67 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package code.world;
+
+import java.util.Random;
+
+/**
+ * Wilson's algorithm: from every cell not yet in the maze, take a random walk
+ * until it hits the maze, then carve the walk with its loops erased. The result
+ * is a uniformly random maze, with no bias toward long or short corridors.
+ */
+public class WilsonMazeGenerator implements MazeGenerator {
+    // East, West, North, South
+    private static final int[] DX = { 1, -1, 0, 0 };
+    private static final int[] DY = { 0, 0, 1, -1 };
+
+    @Override
+    public void generate(Grid grid, Random random) {
+        int cellsAcross = (grid.getWidth() - 1) / 2;
+        int cellsUp = (grid.getHeight() - 1) / 2;
+        int numCells = cellsAcross * cellsUp;
+        grid.fillWalls();
+        if (numCells == 0) {
+            return;
+        }
+
+        boolean[] inMaze = new boolean[numCells];
+        // The direction the walk last left each cell by. Overwriting it when the
+        // walk comes back to a cell is what erases the loop.
+        byte[] exit = new byte[numCells];
+
+        int first = random.nextInt(numCells);
+        inMaze[first] = true;
+        grid.setWall(2 * (first % cellsAcross) + 1, 2 * (first / cellsAcross) + 1, false);
+
+        for (int start = 0; start < numCells; start++) {
+            if (inMaze[start]) {
+                continue;
+            }
+
+            int cell = start;
+            while (!inMaze[cell]) {
+                int cx = cell % cellsAcross;
+                int cy = cell / cellsAcross;
+                int d, nx, ny;
+                do {
+                    d = random.nextInt(4);
+                    nx = cx + DX[d];
+                    ny = cy + DY[d];
+                } while (nx < 0 || nx >= cellsAcross || ny < 0 || ny >= cellsUp);
+                exit[cell] = (byte) d;
+                cell = ny * cellsAcross + nx;
+            }
+
+            cell = start;
+            while (!inMaze[cell]) {
+                int cx = cell % cellsAcross;
+                int cy = cell / cellsAcross;
+                int d = exit[cell];
+                inMaze[cell] = true;
+                grid.setWall(2 * cx + 1, 2 * cy + 1, false);
+                grid.setWall(2 * cx + 1 + DX[d], 2 * cy + 1 + DY[d], false); // Knock down the wall between cells
+                cell = (cy + DY[d]) * cellsAcross + cx + DX[d];
+            }
+        }
+    }
+}
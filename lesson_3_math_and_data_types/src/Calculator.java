@@ -1,12 +1,17 @@
 // © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
 
 import javax.swing.*;
+import batch.FileEvaluator;
+import compile.Optimizer;
+import expression.ErrorExpr;
+import expression.Evaluator;
 import expression.Expr;
 import parse.Parser;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
+import java.io.IOException;
 
 public class Calculator {
 
@@ -149,23 +154,29 @@ public class Calculator {
     private String evaluate(String expression) {
         Parser p = new Parser(expression);
         Expr expr = p.parse();
-        final int MAX_EVALS = 100;
-        for (int i = 0; i < MAX_EVALS; i++) {
-            if (expr.isTerminal()) {
-                try {
-                    return String.valueOf(expr.getValue());
-                } catch (Exception e) {
-                    return expr.toString();
-                }
-            }
-
-            expr = expr.evaluate();
+        if (expr instanceof ErrorExpr) {
+            return Evaluator.evaluate(expr);
         }
         System.out.println(expr.toString());
-        return "Evaluation took too many steps! See terminal.";
+
+        Expr optimized = Optimizer.optimize(expr);
+        System.out.println("Optimized " + Optimizer.countNodes(expr) + " nodes to " + Optimizer.countNodes(optimized));
+        return Evaluator.evaluate(optimized);
     }
 
-    public static void main(String[] args) {
+    /**
+     * With no arguments, opens the calculator. With "input output", evaluates
+     * every line of the input file into the output file without any window;
+     * add --tagged to write each result after its line number, in whatever
+     * order they finish, --cache to remember function results, --tables
+     * to answer isPrime() and gcf() from tables and --exact to work out
+     * results too big for an int in full. See batch.FileEvaluator.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0) {
+            FileEvaluator.main(args);
+            return;
+        }
         EventQueue.invokeLater(() -> {
             try {
                 Calculator calculator = new Calculator();
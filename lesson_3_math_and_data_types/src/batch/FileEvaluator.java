@@ -0,0 +1,389 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package batch;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import compile.Compiler;
+import compile.InterpretedExpr;
+import compile.Optimizer;
+import compile.Program;
+import expression.ErrorExpr;
+import expression.ExactEvaluator;
+import expression.Expr;
+import expression.Function;
+import expression.FunctionCache;
+import numbers.NumberTables;
+import parse.Parser;
+
+/**
+ * Evaluates a file with one expression per line, writing one result per line
+ * to another file: the number, or "Error: " and the message the calculator
+ * would show. Files can be far bigger than memory.
+ *
+ * The input is memory-mapped a window at a time with FileChannel.map() and
+ * cut into chunks of about CHUNK_BYTES that end on a line boundary. Chunks
+ * are parsed and evaluated in parallel. Each one is decoded from UTF-8 into
+ * a char[] its thread reuses, and every line is parsed straight out of that
+ * array, so no String is made per line. Results are written as bytes.
+ *
+ * At most a few chunks per thread are in flight at once, so memory stays
+ * bounded however big the file is. By default results are written in the
+ * same order as the lines. With tagged set, each result is written as
+ * "line number<TAB>result" as soon as its chunk is done, so a slow chunk
+ * never holds up the ones after it, and the lines can come out of order.
+ *
+ * With exact set, lines are evaluated by ExactEvaluator, so results that
+ * don't fit in an int are written in full instead of wrapping around.
+ */
+public class FileEvaluator {
+    public static final int CHUNK_BYTES = 1 << 20;
+    public static final int CACHE_CAPACITY = 1 << 20;
+    // Mapped at a time. Chunks are slices of a window.
+    private static final int WINDOW_BYTES = 1 << 28;
+
+    private final int threads;
+    private final boolean tagged;
+    private final boolean exact;
+
+    // Per thread, so chunks reuse the decoder and buffers of the last one
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public FileEvaluator(int threads, boolean tagged) {
+        this(threads, tagged, false);
+    }
+
+    public FileEvaluator(int threads, boolean tagged, boolean exact) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least 1 thread. Got " + threads);
+        }
+        this.threads = threads;
+        this.tagged = tagged;
+        this.exact = exact;
+    }
+
+    /**
+     * Usage: FileEvaluator input output [--tagged] [--cache] [--tables] [--exact]
+     *
+     * --cache remembers the results of function calls in a FunctionCache of
+     * CACHE_CAPACITY entries while the file is evaluated. --tables answers
+     * isPrime() and gcf() from NumberTables instead of the student's code.
+     * --exact works out every result in full with ExactEvaluator.
+     */
+    public static void main(String[] args) throws IOException {
+        boolean tagged = false;
+        boolean cache = false;
+        boolean tables = false;
+        boolean exact = false;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--tagged")) {
+                tagged = true;
+            } else if (args[i].equals("--cache")) {
+                cache = true;
+            } else if (args[i].equals("--tables")) {
+                tables = true;
+            } else if (args[i].equals("--exact")) {
+                exact = true;
+            } else {
+                args = new String[0];
+            }
+        }
+        if (args.length < 2) {
+            System.err.println("Usage: <input file> <output file> [--tagged] [--cache] [--tables] [--exact]");
+            System.exit(2);
+        }
+        FunctionCache previousCache = Function.getCache();
+        NumberTables previousTables = Function.getNumberTables();
+        if (cache) {
+            Function.setCache(new FunctionCache(CACHE_CAPACITY));
+        }
+        if (tables) {
+            Function.setNumberTables(new NumberTables(NumberTables.DEFAULT_SIEVE_BOUND));
+        }
+        try {
+            long start = System.nanoTime();
+            long lines = new FileEvaluator(Runtime.getRuntime().availableProcessors(), tagged, exact)
+                    .evaluate(Paths.get(args[0]), Paths.get(args[1]));
+            System.out.println("Evaluated " + lines + " lines in " + (System.nanoTime() - start) / 1000000 + " ms");
+            if (cache) {
+                System.out.println(Function.getCache());
+            }
+        } finally {
+            Function.setCache(previousCache);
+            Function.setNumberTables(previousTables);
+        }
+    }
+
+    /**
+     * Evaluates every line of input into output, replacing it, and returns
+     * the number of lines.
+     */
+    public long evaluate(Path input, Path output) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+                OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16)) {
+            return evaluate(channel, out, pool);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while evaluating " + input, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long evaluate(FileChannel channel, OutputStream out, ForkJoinPool pool)
+            throws IOException, InterruptedException, ExecutionException {
+        int maxInFlight = 2 * threads;
+        ArrayDeque<Future<Chunk>> inOrder = new ArrayDeque<Future<Chunk>>();
+        ExecutorCompletionService<Chunk> done = new ExecutorCompletionService<Chunk>(pool);
+        int inFlight = 0;
+
+        long size = channel.size();
+        long lines = 0;
+        long windowStart = 0;
+        MappedByteBuffer window = null;
+        int windowLength = 0;
+        long start = 0;
+        while (start < size) {
+            boolean windowIsAtEnd = window != null && windowStart + windowLength == size;
+            if (window == null || !windowIsAtEnd && start - windowStart + CHUNK_BYTES > windowLength) {
+                // Map from this chunk on, so it fits unless one line is longer than the window
+                windowStart = start;
+                windowLength = (int) Math.min(WINDOW_BYTES, size - start);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+            }
+            int from = (int) (start - windowStart);
+            int to = chunkEnd(window, from, windowLength, windowStart + windowLength == size);
+            if (to < 0) {
+                if (windowLength == Integer.MAX_VALUE) {
+                    throw new IOException("Line at byte " + start + " is too long");
+                }
+                // A line longer than the window, so map a bigger one
+                windowLength = (int) Math.min(Math.min(2L * windowLength, Integer.MAX_VALUE), size - windowStart);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+                continue;
+            }
+
+            ByteBuffer bytes = window.slice(from, to - from);
+            if (tagged) {
+                long firstLine = lines + 1;
+                lines += countLines(bytes);
+                done.submit(() -> evaluateChunk(bytes, firstLine));
+                inFlight++;
+                if (inFlight >= maxInFlight) {
+                    write(done.take().get(), out);
+                    inFlight--;
+                }
+            } else {
+                inOrder.add(pool.submit((Callable<Chunk>) () -> evaluateChunk(bytes, 0)));
+                if (inOrder.size() >= maxInFlight) {
+                    lines += write(inOrder.remove().get(), out);
+                }
+            }
+            start = windowStart + to;
+        }
+
+        while (!inOrder.isEmpty()) {
+            lines += write(inOrder.remove().get(), out);
+        }
+        for (; inFlight > 0; inFlight--) {
+            write(done.take().get(), out);
+        }
+        return lines;
+    }
+
+    /**
+     * Where the chunk starting at from ends: just after the first '\n' at
+     * least CHUNK_BYTES in, or at the end of the file. -1 when that is past
+     * the end of the window.
+     */
+    private static int chunkEnd(ByteBuffer window, int from, int windowLength, boolean windowIsAtEnd) {
+        for (int i = from + CHUNK_BYTES - 1; i < windowLength; i++) {
+            if (window.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return windowIsAtEnd ? windowLength : -1;
+    }
+
+    private static long countLines(ByteBuffer bytes) {
+        long count = 0;
+        int length = bytes.limit();
+        for (int i = 0; i < length; i++) {
+            if (bytes.get(i) == '\n') {
+                count++;
+            }
+        }
+        return length > 0 && bytes.get(length - 1) != '\n' ? count + 1 : count;
+    }
+
+    private static long write(Chunk chunk, OutputStream out) throws IOException {
+        out.write(chunk.output, 0, chunk.length);
+        return chunk.lines;
+    }
+
+    // Decodes the chunk and evaluates each of its lines. Tags start from firstLine.
+    private Chunk evaluateChunk(ByteBuffer bytes, long firstLine) {
+        Scratch scratch = this.scratch.get();
+        char[] text = scratch.decode(bytes);
+        int length = scratch.decoded;
+        Chunk chunk = new Chunk(bytes.limit() + 16);
+
+        int lineStart = 0;
+        long line = firstLine;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && text[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int end = lineEnd > lineStart && text[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            if (tagged) {
+                chunk.appendNumber(line);
+                chunk.append((byte) '\t');
+            }
+            evaluateLine(text, lineStart, end, chunk, scratch);
+            chunk.append((byte) '\n');
+            chunk.lines++;
+            line++;
+            lineStart = lineEnd + 1;
+        }
+        return chunk;
+    }
+
+    private void evaluateLine(char[] text, int start, int end, Chunk chunk, Scratch scratch) {
+        try {
+            Parser parser = new Parser(text, start, end);
+            Expr expr = parser.parse();
+            if (expr instanceof ErrorExpr error) {
+                chunk.appendError(error.getMessage());
+                return;
+            }
+            if (exact) {
+                // Not optimized first, as the Optimizer folds constants with int arithmetic
+                chunk.appendNumber(ExactEvaluator.evaluate(expr));
+                return;
+            }
+            Expr optimized = Optimizer.optimize(expr);
+            if (!parser.getVariables().isEmpty()) {
+                // Nothing gives them values, so this throws the same error the calculator shows
+                chunk.appendNumber(new InterpretedExpr(optimized).evaluate());
+                return;
+            }
+            Program program = Compiler.compile(optimized);
+            chunk.appendNumber(program.run(scratch.stack(program.getMaxStack())));
+        } catch (RuntimeException e) {
+            chunk.appendError(e.getMessage());
+        } catch (StackOverflowError e) {
+            chunk.appendError("Expression is nested too deeply.");
+        }
+    }
+
+    // What one chunk writes, as UTF-8.
+    private static class Chunk {
+        private byte[] output;
+        private int length = 0;
+        private long lines = 0;
+
+        Chunk(int capacity) {
+            output = new byte[capacity];
+        }
+
+        void append(byte b) {
+            if (length == output.length) {
+                output = Arrays.copyOf(output, length * 2);
+            }
+            output[length++] = b;
+        }
+
+        void append(byte[] bytes) {
+            for (byte b : bytes) {
+                append(b);
+            }
+        }
+
+        void appendNumber(long value) {
+            if (value < 0) {
+                append((byte) '-');
+            }
+            // Digits from the lowest, negative so Long.MIN_VALUE works too
+            long rest = value < 0 ? value : -value;
+            int first = length;
+            do {
+                append((byte) ('0' - rest % 10));
+                rest /= 10;
+            } while (rest != 0);
+            for (int i = first, j = length - 1; i < j; i++, j--) {
+                byte swap = output[i];
+                output[i] = output[j];
+                output[j] = swap;
+            }
+        }
+
+        void appendNumber(Number value) {
+            if (value instanceof BigInteger big) {
+                append(big.toString().getBytes(StandardCharsets.US_ASCII));
+            } else {
+                appendNumber(value.longValue());
+            }
+        }
+
+        void appendError(String message) {
+            append(("Error: " + message).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static class Scratch {
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private char[] chars = new char[0];
+        private int decoded;
+        private int[] stack = new int[16];
+
+        // The chunk as chars, the first decoded of them filled in. UTF-8 never has more chars than bytes.
+        char[] decode(ByteBuffer bytes) {
+            if (chars.length < bytes.limit()) {
+                chars = new char[bytes.limit()];
+            }
+            CharBuffer out = CharBuffer.wrap(chars);
+            decoder.reset();
+            decoder.decode(bytes.duplicate(), out, true);
+            decoder.flush(out);
+            decoded = out.position();
+            return chars;
+        }
+
+        int[] stack(int size) {
+            if (stack.length < size) {
+                stack = new int[Math.max(size, 2 * stack.length)];
+            }
+            return stack;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package compile;
+
+/**
+ * An expression that is ready to evaluate as often as needed, however it was
+ * compiled. See JitCompiler.
+ */
+public interface CompiledExpr {
+    public int evaluate();
+
+    /**
+     * Evaluates with the given values for the expression's variables.
+     */
+    public int evaluate(int[] vars);
+}
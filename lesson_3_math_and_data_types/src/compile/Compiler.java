@@ -0,0 +1,109 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package compile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import expression.BaseExpr;
+import expression.Expr;
+import expression.FuncExpr;
+import expression.Function;
+import expression.StmtExpr;
+import expression.TermExpr;
+import expression.VarExpr;
+
+/**
+ * Turns a parsed Expr tree into a Program. The tree is walked once, children
+ * before parents, so each node becomes the instructions for its operands
+ * followed by its own: 1+2*3 becomes PUSH 1, PUSH 2, PUSH 3, MULTIPLY, ADD.
+ *
+ * Calls that would fail whatever the inputs, an unknown function name or the
+ * wrong number of parameters, compile to a FAIL after their parameters. The
+ * tree only finds out once it has evaluated those parameters, so this way a
+ * program throws the same error the tree would, in the same order.
+ */
+public class Compiler {
+    private int[] code = new int[16];
+    private int length = 0;
+    private int depth = 0;
+    private int maxDepth = 0;
+    private int numVars = 0;
+    private final ArrayList<String> messages = new ArrayList<String>();
+
+    private Compiler() {
+    }
+
+    public static Program compile(Expr expr) {
+        Compiler compiler = new Compiler();
+        compiler.emit(expr);
+        return new Program(Arrays.copyOf(compiler.code, compiler.length), compiler.maxDepth, compiler.numVars,
+                compiler.messages.toArray(new String[0]));
+    }
+
+    private void emit(Expr expr) {
+        if (expr instanceof BaseExpr) {
+            add(Program.PUSH, expr.getValue());
+            push(1);
+        } else if (expr instanceof VarExpr var) {
+            if (var.getIndex() < 0) {
+                throw new IllegalArgumentException("Variable " + var.getName() + " has no index");
+            }
+            add(Program.LOAD, var.getIndex());
+            numVars = Math.max(numVars, var.getIndex() + 1);
+            push(1);
+        } else if (expr instanceof StmtExpr stmt) {
+            emit(stmt.getLeft());
+            emit(stmt.getRight());
+            add(stmt.getType() == StmtExpr.Type.ADD ? Program.ADD : Program.SUBTRACT);
+            push(-1);
+        } else if (expr instanceof TermExpr term) {
+            emit(term.getLeft());
+            emit(term.getRight());
+            add(term.getType() == TermExpr.Type.MULTIPLY ? Program.MULTIPLY : Program.DIVIDE);
+            push(-1);
+        } else if (expr instanceof FuncExpr func) {
+            emitCall(func);
+        } else {
+            throw new IllegalArgumentException("Can't compile " + expr);
+        }
+    }
+
+    private void emitCall(FuncExpr func) {
+        ArrayList<Expr> params = func.getParams();
+        for (Expr param : params) {
+            emit(param);
+        }
+        Function function = func.getFunction();
+        if (function == null) {
+            fail(Function.unknownFunctionMessage(func.getName()));
+        } else if (params.size() != function.getArity()) {
+            fail(function.arityMessage(params.size()));
+        } else {
+            add(Program.CALL, function.ordinal());
+            push(1 - params.size());
+        }
+    }
+
+    private void fail(String message) {
+        add(Program.FAIL, messages.size());
+        messages.add(message);
+    }
+
+    private void push(int values) {
+        depth += values;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    private void add(int opcode) {
+        if (length == code.length) {
+            code = Arrays.copyOf(code, length * 2);
+        }
+        code[length++] = opcode;
+    }
+
+    private void add(int opcode, int operand) {
+        add(opcode);
+        add(operand);
+    }
+}
@@ -0,0 +1,178 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package compile;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import expression.ErrorExpr;
+import expression.Expr;
+import parse.Parser;
+
+/**
+ * One formula, like hypot(a, b), parsed, optimized and compiled once, then
+ * evaluated for as many rows of inputs as needed. Inputs are columns: one
+ * int[] per variable, given in the order the variables were named when the
+ * formula was made, so row i is columns[0][i], columns[1][i] and so on.
+ *
+ *   Formula formula = Formula.compile("hypot(a, b)", "a", "b");
+ *   int[] out = new int[a.length];
+ *   formula.evaluate(new int[][] { a, b }, out);
+ *
+ * Results go into an int[] the caller owns, so a batch allocates nothing per
+ * row. Batches of at least PARALLEL_ROWS rows are split into chunks of
+ * CHUNK_ROWS that run on every core, each chunk writing only its own part of
+ * the output. The compiled code is shared and never changes, so this needs no
+ * locking.
+ */
+public class Formula {
+    // Smaller batches run on the calling thread, as splitting would cost more than it saves
+    public static final int PARALLEL_ROWS = 1 << 15;
+    public static final int CHUNK_ROWS = 1 << 13;
+
+    private final String text;
+    private final String[] columns;
+    // Variable number v (Parser's numbering) reads columns[columnOf[v]]
+    private final int[] columnOf;
+    private final Expr expr;
+    private final CompiledExpr compiled;
+
+    private Formula(String text, String[] columns, int[] columnOf, Expr expr) {
+        this.text = text;
+        this.columns = columns;
+        this.columnOf = columnOf;
+        this.expr = expr;
+        this.compiled = JitCompiler.get(expr);
+    }
+
+    /**
+     * Parses and compiles text, which may use any of the variables named in
+     * columns. Throws IllegalArgumentException if the text doesn't parse, or
+     * uses a variable that isn't one of the columns.
+     */
+    public static Formula compile(String text, String... columns) {
+        for (int i = 0; i < columns.length; i++) {
+            for (int j = 0; j < i; j++) {
+                if (columns[i].equals(columns[j])) {
+                    throw new IllegalArgumentException("Column " + columns[i] + " is named twice");
+                }
+            }
+        }
+        Parser parser = new Parser(text);
+        Expr expr = parser.parse();
+        if (expr instanceof ErrorExpr error) {
+            throw new IllegalArgumentException(error.getMessage());
+        }
+
+        List<String> variables = parser.getVariables();
+        int[] columnOf = new int[variables.size()];
+        for (int v = 0; v < columnOf.length; v++) {
+            columnOf[v] = Arrays.asList(columns).indexOf(variables.get(v));
+            if (columnOf[v] < 0) {
+                throw new IllegalArgumentException(text + " uses " + variables.get(v)
+                        + ", which is not one of the columns " + Arrays.toString(columns));
+            }
+        }
+        return new Formula(text, columns.clone(), columnOf, Optimizer.optimize(expr));
+    }
+
+    /**
+     * The formula for one row, with a value for each column.
+     */
+    public int evaluate(int... values) {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " values. Got " + values.length);
+        }
+        int[] vars = new int[columnOf.length];
+        for (int v = 0; v < vars.length; v++) {
+            vars[v] = values[columnOf[v]];
+        }
+        return compiled.evaluate(vars);
+    }
+
+    /**
+     * Evaluates every row, out.length of them, putting row i's result in
+     * out[i]. Each column must have at least that many rows. If any row
+     * throws, the batch stops and throws a RuntimeException naming a row that
+     * failed, and out is left partly written.
+     */
+    public void evaluate(int[][] columns, int[] out) {
+        checkColumns(columns, out.length);
+        int rows = out.length;
+        if (rows < PARALLEL_ROWS) {
+            evaluateRows(columns, out, 0, rows);
+            return;
+        }
+        int chunks = (rows + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * CHUNK_ROWS;
+            evaluateRows(columns, out, from, Math.min(from + CHUNK_ROWS, rows));
+        });
+    }
+
+    /**
+     * Evaluates rows [from, to) on the calling thread, putting row i's result
+     * in out[i]. For callers that split up the work themselves.
+     */
+    public void evaluate(int[][] columns, int[] out, int from, int to) {
+        if (from < 0 || to > out.length || from > to) {
+            throw new IllegalArgumentException(
+                    "Rows [" + from + ", " + to + ") are outside output of length " + out.length);
+        }
+        checkColumns(columns, to);
+        evaluateRows(columns, out, from, to);
+    }
+
+    private void checkColumns(int[][] columns, int rows) {
+        if (columns.length != this.columns.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + this.columns.length + " columns. Got " + columns.length);
+        }
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c].length < rows) {
+                throw new IllegalArgumentException("Column " + this.columns[c] + " has " + columns[c].length
+                        + " rows. Expected at least " + rows);
+            }
+        }
+    }
+
+    private void evaluateRows(int[][] columns, int[] out, int from, int to) {
+        // Each call has its own vars, and its own stack when running a Program
+        int[] vars = new int[columnOf.length];
+        Program program = compiled instanceof Program p ? p : null;
+        int[] stack = program != null ? program.newStack() : null;
+        int row = from;
+        try {
+            for (; row < to; row++) {
+                for (int v = 0; v < vars.length; v++) {
+                    vars[v] = columns[columnOf[v]][row];
+                }
+                out[row] = program != null ? program.run(stack, vars) : compiled.evaluate(vars);
+            }
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Row " + row + ": " + e.getMessage(), e);
+        }
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    // The optimized tree that was compiled.
+    public Expr getExpr() {
+        return expr;
+    }
+
+    public CompiledExpr getCompiled() {
+        return compiled;
+    }
+
+    public String toString() {
+        return text;
+    }
+}
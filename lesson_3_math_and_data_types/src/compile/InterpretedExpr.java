@@ -0,0 +1,64 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package compile;
+
+import java.util.ArrayList;
+
+import expression.BaseExpr;
+import expression.Expr;
+import expression.FuncExpr;
+import expression.StmtExpr;
+import expression.TermExpr;
+import expression.VarExpr;
+
+/**
+ * Evaluates by walking the Expr tree, for expressions nothing else can
+ * compile. With variables, each evaluation first copies the tree with every
+ * variable replaced by its value, so this is slow but always right.
+ */
+public class InterpretedExpr implements CompiledExpr {
+    private final Expr expr;
+
+    public InterpretedExpr(Expr expr) {
+        this.expr = expr;
+    }
+
+    public int evaluate() {
+        return evaluate(expr);
+    }
+
+    public int evaluate(int[] vars) {
+        return evaluate(vars == null ? expr : bind(expr, vars));
+    }
+
+    private static int evaluate(Expr expr) {
+        Expr result = expr;
+        while (!result.isTerminal()) {
+            result = result.evaluate();
+        }
+        return result.getValue();
+    }
+
+    // expr with each variable that has a value in vars replaced by it.
+    private static Expr bind(Expr expr, int[] vars) {
+        if (expr instanceof VarExpr var) {
+            int index = var.getIndex();
+            return index >= 0 && index < vars.length ? new BaseExpr(vars[index]) : var;
+        } else if (expr instanceof StmtExpr stmt) {
+            return new StmtExpr(bind(stmt.getLeft(), vars), bind(stmt.getRight(), vars), stmt.getType());
+        } else if (expr instanceof TermExpr term) {
+            return new TermExpr(bind(term.getLeft(), vars), bind(term.getRight(), vars), term.getType());
+        } else if (expr instanceof FuncExpr func) {
+            ArrayList<Expr> params = new ArrayList<Expr>(func.getParams().size());
+            for (Expr param : func.getParams()) {
+                params.add(bind(param, vars));
+            }
+            return new FuncExpr(func.getName(), params);
+        }
+        return expr;
+    }
+
+    public String toString() {
+        return expr.toString();
+    }
+}
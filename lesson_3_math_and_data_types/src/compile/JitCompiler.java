@@ -0,0 +1,404 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package compile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import expression.BaseExpr;
+import expression.Expr;
+import expression.FuncExpr;
+import expression.Function;
+import expression.StmtExpr;
+import expression.TermExpr;
+import expression.VarExpr;
+
+/**
+ * Compiles an Expr tree into a real JVM method, so the JIT can optimize it
+ * like any other Java code. For each expression it writes a class file by
+ * hand with
+ *
+ *   public static int eval(int[] vars)   the expression itself
+ *   public static int eval()             eval(null)
+ *
+ * plus the two CompiledExpr methods calling them, and loads it as a hidden
+ * class with MethodHandles.Lookup.defineHiddenClass(). Hidden classes have no
+ * name anyone can refer to, and are unloaded once nothing uses them.
+ *
+ * The method body is the tree in postfix order, like Compiler's Program, but
+ * as JVM bytecode: pushes, vars[i] for each variable, iadd, isub, imul, and
+ * calls to Program.divide() and Function.apply() so errors read the same as
+ * the tree's. eval() only works when there are no variables. When there
+ * are, both evaluate() methods first call Program.checkVars(), so a missing
+ * value throws the same error as a Program instead of a bare
+ * NullPointerException. There are no branches, so the class needs no stack
+ * map frames.
+ *
+ * Expressions this can't compile fall back to an interpreter: a Program when
+ * Compiler can build one, otherwise an InterpretedExpr walking the tree. That
+ * covers unknown node types, calls that always fail (an unknown name or the
+ * wrong number of parameters) and methods too long for HotSpot to JIT.
+ *
+ * get() keeps what it compiles in a cache keyed by the expression's
+ * toString(), which is the same for any text that parses to the same tree.
+ */
+public class JitCompiler {
+    // HotSpot leaves methods with more bytecode than this to the interpreter
+    private static final int MAX_CODE_LENGTH = 8000;
+    private static final int MAX_CACHED = 1024;
+    private static final String CLASS_NAME = "compile/JitExpr";
+
+    // JVM opcodes used in the generated code
+    private static final int ACONST_NULL = 0x01;
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC_W = 0x13;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int IALOAD = 0x2e;
+    private static final int IADD = 0x60;
+    private static final int ISUB = 0x64;
+    private static final int IMUL = 0x68;
+    private static final int IRETURN = 0xac;
+    private static final int RETURN = 0xb1;
+    private static final int GETSTATIC = 0xb2;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+
+    // Constant pool tags
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int CLASS = 7;
+    private static final int FIELDREF = 9;
+    private static final int METHODREF = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    private static final ConcurrentHashMap<String, CompiledExpr> CACHE = new ConcurrentHashMap<String, CompiledExpr>();
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final HashMap<String, Integer> poolIndex = new HashMap<String, Integer>();
+    private int poolCount = 0;
+
+    private final ByteArrayOutputStream codeBytes = new ByteArrayOutputStream();
+    private final DataOutputStream code = new DataOutputStream(codeBytes);
+    private int depth = 0;
+    private int maxDepth = 0;
+    private int numVars = 0; // One more than the highest variable index read
+
+    private JitCompiler() {
+    }
+
+    /**
+     * The compiled form of expr, from the cache when the same expression has
+     * been compiled before.
+     */
+    public static CompiledExpr get(Expr expr) {
+        String key = expr.toString();
+        CompiledExpr cached = CACHE.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (CACHE.size() >= MAX_CACHED) {
+            return compile(expr);
+        }
+        return CACHE.computeIfAbsent(key, k -> compile(expr));
+    }
+
+    public static int getCacheSize() {
+        return CACHE.size();
+    }
+
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    /**
+     * Compiles expr to bytecode without looking in the cache, or falls back to
+     * an interpreter when it can't.
+     */
+    public static CompiledExpr compile(Expr expr) {
+        byte[] classFile;
+        try {
+            classFile = new JitCompiler().generate(expr);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Only writes to byte arrays, so never happens
+        }
+        if (classFile == null) {
+            return interpret(expr);
+        }
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+            return (CompiledExpr) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Generated a class the JVM won't load for " + expr, e);
+        }
+    }
+
+    private static CompiledExpr interpret(Expr expr) {
+        try {
+            return Compiler.compile(expr);
+        } catch (IllegalArgumentException e) {
+            return new InterpretedExpr(expr);
+        }
+    }
+
+    // The class file, or null when expr can't be compiled.
+    private byte[] generate(Expr expr) throws IOException {
+        if (!emit(expr) || codeBytes.size() + 1 > MAX_CODE_LENGTH) {
+            return null;
+        }
+        code.writeByte(IRETURN);
+        byte[] body = codeBytes.toByteArray();
+        int bodyStack = maxDepth;
+
+        int thisClass = classRef(CLASS_NAME);
+        int objectClass = classRef("java/lang/Object");
+        int compiledExpr = classRef("compile/CompiledExpr");
+        int evalVars = methodRef(CLASS_NAME, "eval", "([I)I");
+        int evalNoVars = methodRef(CLASS_NAME, "eval", "()I");
+
+        ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(classBytes);
+        // Every constant is added before the pool is written, so write the methods to one side first
+        ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+        DataOutputStream methods = new DataOutputStream(methodBytes);
+
+        writeMethod(methods, 0x0001, "<init>", "()V", 1, 1,
+                ALOAD_0, INVOKESPECIAL, methodRef("java/lang/Object", "<init>", "()V"), RETURN);
+        writeMethod(methods, 0x0009, "eval", "([I)I", bodyStack, 1, body);
+        writeMethod(methods, 0x0009, "eval", "()I", 1, 0, ACONST_NULL, INVOKESTATIC, evalVars, IRETURN);
+        if (numVars == 0) {
+            writeMethod(methods, 0x0001, "evaluate", "()I", 1, 1, INVOKESTATIC, evalNoVars, IRETURN);
+            writeMethod(methods, 0x0001, "evaluate", "([I)I", 1, 2, ALOAD_1, INVOKESTATIC, evalVars, IRETURN);
+        } else {
+            writeMethod(methods, 0x0001, "evaluate", "()I", 2, 1, checkVars(ACONST_NULL, INVOKESTATIC, evalNoVars));
+            writeMethod(methods, 0x0001, "evaluate", "([I)I", 2, 2, checkVars(ALOAD_1, ALOAD_1, INVOKESTATIC, evalVars));
+        }
+
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(61); // Java 17
+        out.writeShort(poolCount + 1);
+        poolBytes.writeTo(out);
+        out.writeShort(0x0031); // public final super
+        out.writeShort(thisClass);
+        out.writeShort(objectClass);
+        out.writeShort(1);
+        out.writeShort(compiledExpr);
+        out.writeShort(0); // Fields
+        out.writeShort(5);
+        methodBytes.writeTo(out);
+        out.writeShort(0); // Attributes
+        return classBytes.toByteArray();
+    }
+
+    // Appends the code for expr, or returns false if it has something this can't compile.
+    private boolean emit(Expr expr) throws IOException {
+        if (expr instanceof BaseExpr) {
+            pushInt(expr.getValue());
+            return true;
+        } else if (expr instanceof VarExpr var) {
+            if (var.getIndex() < 0) {
+                return false;
+            }
+            numVars = Math.max(numVars, var.getIndex() + 1);
+            code.writeByte(ALOAD_0);
+            push(1);
+            pushInt(var.getIndex());
+            code.writeByte(IALOAD);
+            push(-1);
+            return true;
+        } else if (expr instanceof StmtExpr stmt) {
+            if (!emit(stmt.getLeft()) || !emit(stmt.getRight())) {
+                return false;
+            }
+            code.writeByte(stmt.getType() == StmtExpr.Type.ADD ? IADD : ISUB);
+            push(-1);
+            return true;
+        } else if (expr instanceof TermExpr term) {
+            if (!emit(term.getLeft()) || !emit(term.getRight())) {
+                return false;
+            }
+            if (term.getType() == TermExpr.Type.MULTIPLY) {
+                code.writeByte(IMUL);
+            } else {
+                code.writeByte(INVOKESTATIC);
+                code.writeShort(methodRef("compile/Program", "divide", "(II)I"));
+            }
+            push(-1);
+            return true;
+        } else if (expr instanceof FuncExpr func) {
+            return emitCall(func);
+        }
+        return false;
+    }
+
+    // Function.X.apply(a, b), with b = 0 for functions of one parameter.
+    private boolean emitCall(FuncExpr func) throws IOException {
+        Function function = func.getFunction();
+        if (function == null || func.getParams().size() != function.getArity()) {
+            return false;
+        }
+        code.writeByte(GETSTATIC);
+        code.writeShort(fieldRef("expression/Function", function.name(), "Lexpression/Function;"));
+        push(1);
+        for (Expr param : func.getParams()) {
+            if (!emit(param)) {
+                return false;
+            }
+        }
+        if (function.getArity() == 1) {
+            code.writeByte(ICONST_0);
+            push(1);
+        }
+        code.writeByte(INVOKEVIRTUAL);
+        code.writeShort(methodRef("expression/Function", "apply", "(II)I"));
+        push(-2);
+        return true;
+    }
+
+    /**
+     * Program.checkVars(numVars, vars), with vars pushed by varsOpcode, then
+     * the rest of the method. Reuses code, which holds nothing once the body
+     * has been copied out.
+     */
+    private byte[] checkVars(int varsOpcode, int... rest) throws IOException {
+        codeBytes.reset();
+        pushInt(numVars);
+        code.writeByte(varsOpcode);
+        code.writeByte(INVOKESTATIC);
+        code.writeShort(methodRef("compile/Program", "checkVars", "(I[I)V"));
+        for (int i = 0; i < rest.length; i++) {
+            code.writeByte(rest[i]);
+            if (rest[i] == INVOKESTATIC) {
+                code.writeShort(rest[++i]);
+            }
+        }
+        code.writeByte(IRETURN);
+        return codeBytes.toByteArray();
+    }
+
+    private void pushInt(int value) throws IOException {
+        if (value >= -1 && value <= 5) {
+            code.writeByte(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            code.writeByte(BIPUSH);
+            code.writeByte(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            code.writeByte(SIPUSH);
+            code.writeShort(value);
+        } else {
+            code.writeByte(LDC_W);
+            code.writeShort(constant(INTEGER + ":" + value, () -> {
+                pool.writeByte(INTEGER);
+                pool.writeInt(value);
+            }));
+        }
+        push(1);
+    }
+
+    private void push(int values) {
+        depth += values;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    // code is one opcode per value, except that each invoke is followed by its u2 constant index.
+    private void writeMethod(DataOutputStream out, int access, String name, String descriptor, int maxStack,
+            int maxLocals, int... code) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream bodyOut = new DataOutputStream(body);
+        for (int i = 0; i < code.length; i++) {
+            bodyOut.writeByte(code[i]);
+            if (code[i] == INVOKESPECIAL || code[i] == INVOKESTATIC) {
+                bodyOut.writeShort(code[++i]);
+            }
+        }
+        writeMethod(out, access, name, descriptor, maxStack, maxLocals, body.toByteArray());
+    }
+
+    private void writeMethod(DataOutputStream out, int access, String name, String descriptor, int maxStack,
+            int maxLocals, byte[] body) throws IOException {
+        out.writeShort(access);
+        out.writeShort(utf8(name));
+        out.writeShort(utf8(descriptor));
+        out.writeShort(1);
+        out.writeShort(utf8("Code"));
+        out.writeInt(12 + body.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(body.length);
+        out.write(body);
+        out.writeShort(0); // Exception table
+        out.writeShort(0); // Attributes
+    }
+
+    private interface PoolWriter {
+        void write() throws IOException;
+    }
+
+    // The index of a constant, adding it the first time it's asked for.
+    private int constant(String key, PoolWriter writer) throws IOException {
+        Integer index = poolIndex.get(key);
+        if (index != null) {
+            return index;
+        }
+        writer.write();
+        poolCount++;
+        poolIndex.put(key, poolCount);
+        return poolCount;
+    }
+
+    private int utf8(String text) throws IOException {
+        return constant(UTF8 + ":" + text, () -> {
+            pool.writeByte(UTF8);
+            pool.writeUTF(text);
+        });
+    }
+
+    private int classRef(String name) throws IOException {
+        int nameIndex = utf8(name);
+        return constant(CLASS + ":" + name, () -> {
+            pool.writeByte(CLASS);
+            pool.writeShort(nameIndex);
+        });
+    }
+
+    private int nameAndType(String name, String descriptor) throws IOException {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        return constant(NAME_AND_TYPE + ":" + name + ":" + descriptor, () -> {
+            pool.writeByte(NAME_AND_TYPE);
+            pool.writeShort(nameIndex);
+            pool.writeShort(descriptorIndex);
+        });
+    }
+
+    private int methodRef(String owner, String name, String descriptor) throws IOException {
+        return memberRef(METHODREF, owner, name, descriptor);
+    }
+
+    private int fieldRef(String owner, String name, String descriptor) throws IOException {
+        return memberRef(FIELDREF, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) throws IOException {
+        int ownerIndex = classRef(owner);
+        int nameAndTypeIndex = nameAndType(name, descriptor);
+        return constant(tag + ":" + owner + "." + name + ":" + descriptor, () -> {
+            pool.writeByte(tag);
+            pool.writeShort(ownerIndex);
+            pool.writeShort(nameAndTypeIndex);
+        });
+    }
+}
@@ -0,0 +1,132 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package compile;
+
+import java.util.ArrayList;
+
+import expression.BaseExpr;
+import expression.Expr;
+import expression.FuncExpr;
+import expression.Function;
+import expression.StmtExpr;
+import expression.TermExpr;
+
+/**
+ * Simplifies a parsed Expr tree before it is evaluated or compiled, giving a
+ * tree that evaluates to the same value, or fails with the same error.
+ *
+ * Constant folding: any node whose operands are all numbers is evaluated once
+ * and replaced by its result. A node that throws, like 1/0 or sqrt(0-4), is
+ * left as it is so evaluation still throws there.
+ *
+ * Identities: x+0, 0+x, x-0, x*1, 1*x and x/1 become x, whatever x is.
+ * Nothing that could skip an error is applied, so x*0 stays, and neither are
+ * identities of the student's functions, like pow(x, 1) = x. Those are the
+ * code the calculator is there to try out.
+ */
+public class Optimizer {
+
+    private Optimizer() {
+    }
+
+    public static Expr optimize(Expr expr) {
+        if (expr instanceof StmtExpr stmt) {
+            return optimizeStmt(stmt);
+        } else if (expr instanceof TermExpr term) {
+            return optimizeTerm(term);
+        } else if (expr instanceof FuncExpr func) {
+            return optimizeFunc(func);
+        }
+        return expr;
+    }
+
+    private static Expr optimizeStmt(StmtExpr stmt) {
+        Expr left = optimize(stmt.getLeft());
+        Expr right = optimize(stmt.getRight());
+        if (isNumber(left) && isNumber(right)) {
+            return fold(new StmtExpr(left, right, stmt.getType()));
+        }
+        if (isNumber(right, 0)) {
+            return left;
+        }
+        if (stmt.getType() == StmtExpr.Type.ADD && isNumber(left, 0)) {
+            return right;
+        }
+        if (left == stmt.getLeft() && right == stmt.getRight()) {
+            return stmt;
+        }
+        return new StmtExpr(left, right, stmt.getType());
+    }
+
+    private static Expr optimizeTerm(TermExpr term) {
+        Expr left = optimize(term.getLeft());
+        Expr right = optimize(term.getRight());
+        if (isNumber(left) && isNumber(right)) {
+            return fold(new TermExpr(left, right, term.getType()));
+        }
+        if (isNumber(right, 1)) {
+            return left;
+        }
+        if (term.getType() == TermExpr.Type.MULTIPLY && isNumber(left, 1)) {
+            return right;
+        }
+        if (left == term.getLeft() && right == term.getRight()) {
+            return term;
+        }
+        return new TermExpr(left, right, term.getType());
+    }
+
+    private static Expr optimizeFunc(FuncExpr func) {
+        ArrayList<Expr> params = new ArrayList<Expr>(func.getParams().size());
+        boolean changed = false;
+        boolean allNumbers = true;
+        for (Expr param : func.getParams()) {
+            Expr optimized = optimize(param);
+            params.add(optimized);
+            changed |= optimized != param;
+            allNumbers &= isNumber(optimized);
+        }
+        FuncExpr result = changed ? new FuncExpr(func.getName(), params) : func;
+        Function function = func.getFunction();
+        if (allNumbers && function != null && params.size() == function.getArity()) {
+            return fold(result);
+        }
+        return result;
+    }
+
+    // The value of expr as a BaseExpr, or expr itself if evaluating it throws.
+    private static Expr fold(Expr expr) {
+        try {
+            return expr.evaluate();
+        } catch (RuntimeException e) {
+            return expr;
+        }
+    }
+
+    private static boolean isNumber(Expr expr) {
+        return expr instanceof BaseExpr;
+    }
+
+    private static boolean isNumber(Expr expr, int value) {
+        return expr instanceof BaseExpr && expr.getValue() == value;
+    }
+
+    /**
+     * Nodes in the tree: numbers, variables, operators and function calls each
+     * count one.
+     */
+    public static int countNodes(Expr expr) {
+        if (expr instanceof StmtExpr stmt) {
+            return 1 + countNodes(stmt.getLeft()) + countNodes(stmt.getRight());
+        } else if (expr instanceof TermExpr term) {
+            return 1 + countNodes(term.getLeft()) + countNodes(term.getRight());
+        } else if (expr instanceof FuncExpr func) {
+            int count = 1;
+            for (Expr param : func.getParams()) {
+                count += countNodes(param);
+            }
+            return count;
+        }
+        return 1;
+    }
+}
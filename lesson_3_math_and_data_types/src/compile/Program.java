@@ -0,0 +1,202 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package compile;
+
+import expression.Function;
+
+/**
+ * An expression compiled by Compiler into a flat list of instructions for a
+ * small stack machine. Each instruction is an opcode, sometimes followed by
+ * one operand, all in a single int[]. Running it walks the list once,
+ * pushing numbers and replacing the top of an int[] stack with results, so
+ * no objects are made however many times it runs.
+ *
+ * Variables are read from an int[] of values passed to each run, LOAD i
+ * pushing vars[i]. A Program never changes after it is built, so many threads
+ * can run the same one as long as each passes its own stack.
+ */
+public class Program implements CompiledExpr {
+    // Opcodes. PUSH, CALL, FAIL and LOAD are followed by one operand.
+    public static final int PUSH = 0; // Push the operand
+    public static final int ADD = 1;
+    public static final int SUBTRACT = 2;
+    public static final int MULTIPLY = 3;
+    public static final int DIVIDE = 4;
+    public static final int CALL = 5; // Apply Function.values()[operand] to the top values
+    public static final int FAIL = 6; // Throw with message number operand
+    public static final int LOAD = 7; // Push variable number operand
+
+    private static final Function[] FUNCTIONS = Function.values();
+
+    private final int[] code;
+    private final int maxStack;
+    private final int numVars;
+    private final String[] messages;
+
+    Program(int[] code, int maxStack, int numVars, String[] messages) {
+        this.code = code;
+        this.maxStack = maxStack;
+        this.numVars = numVars;
+        this.messages = messages;
+    }
+
+    /**
+     * Runs the program with a new stack. To run it many times without
+     * allocating, make one stack with newStack() and use run(int[]).
+     */
+    public int run() {
+        return run(newStack());
+    }
+
+    public int[] newStack() {
+        return new int[maxStack];
+    }
+
+    public int run(int[] stack) {
+        return run(stack, null);
+    }
+
+    /**
+     * Runs the program using stack, which must hold at least getMaxStack()
+     * values, and returns the result. vars holds the value of each variable
+     * and can be null when there are none. Errors are the same
+     * RuntimeExceptions, with the same messages, that evaluating the tree
+     * would throw.
+     */
+    public int run(int[] stack, int[] vars) {
+        if (stack.length < maxStack) {
+            throw new IllegalArgumentException("Stack must hold " + maxStack + " values. Got " + stack.length);
+        }
+        checkVars(numVars, vars);
+        int[] code = this.code;
+        int top = -1;
+        int pc = 0;
+        while (pc < code.length) {
+            switch (code[pc++]) {
+                case PUSH:
+                    stack[++top] = code[pc++];
+                    break;
+                case ADD:
+                    top--;
+                    stack[top] += stack[top + 1];
+                    break;
+                case SUBTRACT:
+                    top--;
+                    stack[top] -= stack[top + 1];
+                    break;
+                case MULTIPLY:
+                    top--;
+                    stack[top] *= stack[top + 1];
+                    break;
+                case DIVIDE:
+                    top--;
+                    stack[top] = divide(stack[top], stack[top + 1]);
+                    break;
+                case CALL: {
+                    Function function = FUNCTIONS[code[pc++]];
+                    if (function.getArity() == 2) {
+                        top--;
+                        stack[top] = function.apply(stack[top], stack[top + 1]);
+                    } else {
+                        stack[top] = function.apply(stack[top], 0);
+                    }
+                    break;
+                }
+                case FAIL:
+                    throw new RuntimeException(messages[code[pc]]);
+                case LOAD:
+                    stack[++top] = vars[code[pc++]];
+                    break;
+                default:
+                    throw new IllegalStateException("Bad opcode " + code[pc - 1] + " at " + (pc - 1));
+            }
+        }
+        return stack[0];
+    }
+
+    public int evaluate() {
+        return run();
+    }
+
+    public int evaluate(int[] vars) {
+        return run(newStack(), vars);
+    }
+
+    /**
+     * Throws unless vars, which can be null, holds a value for each of
+     * numVars variables. JitCompiler's classes call this too, so every
+     * CompiledExpr fails the same way.
+     */
+    public static void checkVars(int numVars, int[] vars) {
+        if (numVars > 0 && (vars == null || vars.length < numVars)) {
+            throw new IllegalArgumentException("Expected values for " + numVars + " variables. Got "
+                    + (vars == null ? 0 : vars.length));
+        }
+    }
+
+    /**
+     * a / b, always with the message the calculator shows for / by zero. Hot
+     * code can throw the JVM's own ArithmeticException without one.
+     */
+    public static int divide(int a, int b) {
+        if (b == 0) {
+            throw new ArithmeticException("/ by zero");
+        }
+        return a / b;
+    }
+
+    public int getMaxStack() {
+        return maxStack;
+    }
+
+    // One more than the highest variable index the code reads.
+    public int getNumVars() {
+        return numVars;
+    }
+
+    // Number of ints in the code, opcodes and operands together.
+    public int getLength() {
+        return code.length;
+    }
+
+    /**
+     * One instruction per line, for reading what the compiler made.
+     */
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        int pc = 0;
+        while (pc < code.length) {
+            int opcode = code[pc++];
+            switch (opcode) {
+                case PUSH:
+                    text.append("PUSH ").append(code[pc++]);
+                    break;
+                case ADD:
+                    text.append("ADD");
+                    break;
+                case SUBTRACT:
+                    text.append("SUBTRACT");
+                    break;
+                case MULTIPLY:
+                    text.append("MULTIPLY");
+                    break;
+                case DIVIDE:
+                    text.append("DIVIDE");
+                    break;
+                case CALL:
+                    text.append("CALL ").append(FUNCTIONS[code[pc++]].getName());
+                    break;
+                case FAIL:
+                    text.append("FAIL \"").append(messages[code[pc++]]).append('"');
+                    break;
+                case LOAD:
+                    text.append("LOAD ").append(code[pc++]);
+                    break;
+                default:
+                    text.append("? ").append(opcode);
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+}
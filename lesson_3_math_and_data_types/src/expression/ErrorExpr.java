@@ -13,6 +13,10 @@ public class ErrorExpr implements Expr {
         throw new RuntimeException("Cannot get value from ErrorExpr");
     }
 
+    public String getMessage() {
+        return msg;
+    }
+
     public boolean isTerminal() {
         return true;
     }
@@ -0,0 +1,27 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package expression;
+
+/**
+ * Evaluates a parsed expression one step at a time until it is a single value.
+ * The calculator shows whatever this returns.
+ */
+public class Evaluator {
+    public static final int MAX_EVALS = 100;
+
+    public static String evaluate(Expr expr) {
+        for (int i = 0; i < MAX_EVALS; i++) {
+            if (expr.isTerminal()) {
+                try {
+                    return String.valueOf(expr.getValue());
+                } catch (Exception e) {
+                    return expr.toString();
+                }
+            }
+
+            expr = expr.evaluate();
+        }
+        System.out.println(expr.toString());
+        return "Evaluation took too many steps! See terminal.";
+    }
+}
@@ -0,0 +1,365 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package expression;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+
+import numbers.NumberTables;
+
+/**
+ * Evaluates an Expr tree without ever overflowing, where the calculator's
+ * ints silently wrap around: pow(7, 40) is 6366805760909027985741435139224001
+ * and sumTo(100000) is 5000050000.
+ *
+ * Values climb a tower of int, long and BigInteger. The first try works in
+ * longs, which hold every int, and checks each step for overflow the way
+ * Math.addExact() and multiplyExact() do. That path allocates nothing. Only
+ * if a step overflows a long does it start again in BigInteger, which can't
+ * overflow.
+ * evaluate() then hands back the smallest of Integer, Long and BigInteger
+ * that holds the result.
+ *
+ * The student's functions return ints, which can't hold the answers this is
+ * for. So here the functions are worked out exactly by the evaluator itself,
+ * with sqrt() and hypot() rounding down. toBinary(), whose answer always
+ * fits, still calls the student's code. Inputs are checked first, and every
+ * error has the same message and comes in the same order as when the tree
+ * evaluates itself. Anything that parses but didn't go through this,
+ * including the Optimizer's folding, still uses ints. So don't optimize a
+ * tree first.
+ */
+public class ExactEvaluator {
+    // Results longer than this many bits, about 20000 digits, are refused rather than taking seconds to work out.
+    public static final int MAX_BITS = 1 << 16;
+    // isPrime() is refused above this many bits, where a prime takes more than a tenth of a second to test.
+    public static final int MAX_PRIME_BITS = 2048;
+
+    private static final BigInteger INT_MIN = BigInteger.valueOf(Integer.MIN_VALUE);
+    private static final BigInteger INT_MAX = BigInteger.valueOf(Integer.MAX_VALUE);
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+    /**
+     * Thrown when a value leaves the long range, to restart in BigInteger.
+     * There is only one, without a stack trace, so overflowing costs no
+     * allocation either.
+     */
+    private static class Overflow extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Overflow() {
+            super("Overflowed a long", null, false, false);
+        }
+    }
+
+    private static final Overflow OVERFLOW = new Overflow();
+
+    private ExactEvaluator() {
+    }
+
+    /**
+     * The exact value of expr, as an Integer, a Long or a BigInteger: the
+     * first of those that can hold it.
+     */
+    public static Number evaluate(Expr expr) {
+        long value;
+        try {
+            value = longValue(expr);
+        } catch (Overflow e) {
+            BigInteger big = bigValue(expr);
+            if (big.compareTo(LONG_MIN) < 0 || big.compareTo(LONG_MAX) > 0) {
+                return big;
+            }
+            value = big.longValue(); // Went out of range on the way, then came back
+        }
+        if (value == (int) value) {
+            return (int) value;
+        }
+        return value;
+    }
+
+    /**
+     * The exact value of expr, which has to fit in a long. Allocates nothing
+     * unless it doesn't, when it throws an ArithmeticException.
+     */
+    public static long evaluateLong(Expr expr) {
+        try {
+            return longValue(expr);
+        } catch (Overflow e) {
+            BigInteger big = bigValue(expr);
+            if (big.compareTo(LONG_MIN) < 0 || big.compareTo(LONG_MAX) > 0) {
+                throw new ArithmeticException("Result doesn't fit in a long");
+            }
+            return big.longValue();
+        }
+    }
+
+    public static BigInteger evaluateBig(Expr expr) {
+        return bigValue(expr);
+    }
+
+    // Long tier. Every method throws OVERFLOW as soon as a value leaves the long range.
+
+    private static long longValue(Expr expr) {
+        if (expr instanceof BaseExpr) {
+            return expr.getValue();
+        } else if (expr instanceof StmtExpr stmt) {
+            long left = longValue(stmt.getLeft());
+            long right = longValue(stmt.getRight());
+            return stmt.getType() == StmtExpr.Type.ADD ? add(left, right) : subtract(left, right);
+        } else if (expr instanceof TermExpr term) {
+            long left = longValue(term.getLeft());
+            long right = longValue(term.getRight());
+            if (term.getType() == TermExpr.Type.MULTIPLY) {
+                return multiply(left, right);
+            }
+            if (right == 0) {
+                throw new ArithmeticException("/ by zero");
+            }
+            if (left == Long.MIN_VALUE && right == -1) {
+                throw OVERFLOW;
+            }
+            return left / right;
+        } else if (expr instanceof FuncExpr func) {
+            return longCall(func);
+        } else if (expr instanceof VarExpr) {
+            return expr.getValue(); // Throws that it has no value
+        }
+        throw new IllegalArgumentException("Can't evaluate " + expr);
+    }
+
+    private static long longCall(FuncExpr func) {
+        // Like FuncExpr.evaluate(): every parameter in order, then the checks
+        ArrayList<Expr> params = func.getParams();
+        long a = 0;
+        long b = 0;
+        for (int i = 0; i < params.size(); i++) {
+            long value = longValue(params.get(i));
+            if (i == 0) {
+                a = value;
+            } else if (i == 1) {
+                b = value;
+            }
+        }
+        Function function = checkCall(func);
+        function.check(a, b);
+        switch (function) {
+            case ABS:
+                if (a == Long.MIN_VALUE) {
+                    throw OVERFLOW;
+                }
+                return Math.abs(a);
+            case SQRT:
+                return floorSqrt(a);
+            case POW:
+                return longPow(a, b);
+            case SUM_TO:
+                // n(n + 1) / 2, halving whichever of the two is even first
+                return (a & 1) == 0 ? multiply(a / 2, a + 1) : multiply(a, (a + 1) / 2);
+            case GCF:
+                return longGcf(a, b);
+            case IS_PRIME:
+                if (a <= Integer.MAX_VALUE) {
+                    return NumberTables.isPrimeMillerRabin((int) a) ? 1 : 0;
+                }
+                return BigInteger.valueOf(a).isProbablePrime(100) ? 1 : 0;
+            case HYPOT:
+                return floorSqrt(add(multiply(a, a), multiply(b, b)));
+            default: // TO_BINARY
+                return function.apply(toInt(function, a), 0);
+        }
+    }
+
+    // The Function a call is to, or the calculator's error if there is none or it has the wrong number of inputs.
+    private static Function checkCall(FuncExpr func) {
+        Function function = func.getFunction();
+        if (function == null) {
+            throw new RuntimeException(Function.unknownFunctionMessage(func.getName()));
+        }
+        if (func.getParams().size() != function.getArity()) {
+            throw new RuntimeException(function.arityMessage(func.getParams().size()));
+        }
+        return function;
+    }
+
+    private static int toInt(Function function, long value) {
+        if (value != (int) value) {
+            throw new RuntimeException(function.getName() + "() can only take inputs that fit in an int.");
+        }
+        return (int) value;
+    }
+
+    // The largest r with r * r <= n, for n >= 0.
+    private static long floorSqrt(long n) {
+        long r = (long) Math.sqrt((double) n);
+        // The double can be off by one either way for big n. Dividing instead of squaring can't overflow.
+        while (r > 0 && r > n / r) {
+            r--;
+        }
+        while (r + 1 <= n / (r + 1)) {
+            r++;
+        }
+        return r;
+    }
+
+    private static long longPow(long base, long exponent) {
+        if (base == 0 || base == 1) {
+            return exponent == 0 ? 1 : base;
+        }
+        if (base == -1) {
+            return (exponent & 1) == 0 ? 1 : -1;
+        }
+        if (exponent >= 64) {
+            throw OVERFLOW; // |base| >= 2
+        }
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result = multiply(result, base);
+        }
+        return result;
+    }
+
+    /*
+     * The same checks as Math.addExact(), subtractExact() and multiplyExact().
+     * Those throw a new ArithmeticException, which fills in its stack trace
+     * through the whole recursion and made falling back to BigInteger ten
+     * times slower than starting there.
+     */
+
+    private static long add(long a, long b) {
+        long sum = a + b;
+        // Overflowed if both inputs have the other sign from the sum
+        if (((a ^ sum) & (b ^ sum)) < 0) {
+            throw OVERFLOW;
+        }
+        return sum;
+    }
+
+    private static long subtract(long a, long b) {
+        long difference = a - b;
+        if (((a ^ b) & (a ^ difference)) < 0) {
+            throw OVERFLOW;
+        }
+        return difference;
+    }
+
+    private static long multiply(long a, long b) {
+        long product = a * b;
+        // Fits if the high 64 bits of the full product are only the sign of the low ones
+        if (Math.multiplyHigh(a, b) != product >> 63) {
+            throw OVERFLOW;
+        }
+        return product;
+    }
+
+    private static long longGcf(long a, long b) {
+        while (b != 0) {
+            long rest = a % b;
+            a = b;
+            b = rest;
+        }
+        return a;
+    }
+
+    // BigInteger tier. The same steps, none of which can overflow.
+
+    private static BigInteger bigValue(Expr expr) {
+        if (expr instanceof BaseExpr) {
+            return BigInteger.valueOf(expr.getValue());
+        } else if (expr instanceof StmtExpr stmt) {
+            BigInteger left = bigValue(stmt.getLeft());
+            BigInteger right = bigValue(stmt.getRight());
+            return checkSize(stmt.getType() == StmtExpr.Type.ADD ? left.add(right) : left.subtract(right));
+        } else if (expr instanceof TermExpr term) {
+            BigInteger left = bigValue(term.getLeft());
+            BigInteger right = bigValue(term.getRight());
+            if (term.getType() == TermExpr.Type.MULTIPLY) {
+                if ((long) left.bitLength() + right.bitLength() > MAX_BITS) {
+                    throw tooBig();
+                }
+                return left.multiply(right);
+            }
+            if (right.signum() == 0) {
+                throw new ArithmeticException("/ by zero");
+            }
+            return left.divide(right);
+        } else if (expr instanceof FuncExpr func) {
+            return bigCall(func);
+        } else if (expr instanceof VarExpr) {
+            return BigInteger.valueOf(expr.getValue());
+        }
+        throw new IllegalArgumentException("Can't evaluate " + expr);
+    }
+
+    private static BigInteger bigCall(FuncExpr func) {
+        ArrayList<Expr> params = func.getParams();
+        BigInteger a = BigInteger.ZERO;
+        BigInteger b = BigInteger.ZERO;
+        for (int i = 0; i < params.size(); i++) {
+            BigInteger value = bigValue(params.get(i));
+            if (i == 0) {
+                a = value;
+            } else if (i == 1) {
+                b = value;
+            }
+        }
+        Function function = checkCall(func);
+        // The checks only compare with 0 and 1, so a long with the same sign stands in for a bigger number
+        function.check(clamp(a), clamp(b));
+        switch (function) {
+            case ABS:
+                return a.abs();
+            case SQRT:
+                return a.sqrt();
+            case POW:
+                return bigPow(a, b);
+            case SUM_TO:
+                return checkSize(a.multiply(a.add(BigInteger.ONE)).shiftRight(1));
+            case GCF:
+                return a.gcd(b);
+            case IS_PRIME:
+                if (a.bitLength() > MAX_PRIME_BITS) {
+                    throw new RuntimeException("isPrime() can only test numbers up to " + MAX_PRIME_BITS + " bits.");
+                }
+                // Wrong with probability below 2^-100
+                return a.isProbablePrime(100) ? BigInteger.ONE : BigInteger.ZERO;
+            case HYPOT:
+                return checkSize(a.multiply(a).add(b.multiply(b))).sqrt();
+            default: // TO_BINARY
+                if (a.compareTo(INT_MIN) < 0 || a.compareTo(INT_MAX) > 0) {
+                    throw new RuntimeException(function.getName() + "() can only take inputs that fit in an int.");
+                }
+                return BigInteger.valueOf(function.apply(a.intValue(), 0));
+        }
+    }
+
+    private static BigInteger bigPow(BigInteger base, BigInteger exponent) {
+        if (base.signum() == 0 || base.equals(BigInteger.ONE)) {
+            return exponent.signum() == 0 ? BigInteger.ONE : base;
+        }
+        if (base.equals(BigInteger.ONE.negate())) {
+            return exponent.testBit(0) ? base : BigInteger.ONE;
+        }
+        // |base| >= 2, so the result has at least exponent bits
+        if (exponent.bitLength() > 31 || (long) exponent.intValue() * (base.abs().bitLength() - 1) > MAX_BITS) {
+            throw tooBig();
+        }
+        return base.pow(exponent.intValue());
+    }
+
+    private static long clamp(BigInteger value) {
+        return value.bitLength() < 64 ? value.longValue() : value.signum() * Long.MAX_VALUE;
+    }
+
+    private static BigInteger checkSize(BigInteger value) {
+        if (value.bitLength() > MAX_BITS) {
+            throw tooBig();
+        }
+        return value;
+    }
+
+    private static RuntimeException tooBig() {
+        return new RuntimeException("Result has more than " + MAX_BITS + " bits. Too big to work out.");
+    }
+}
@@ -4,16 +4,16 @@ package expression;
 
 import java.util.ArrayList;
 
-import studentcode.StudentCode;
-
 public class FuncExpr implements Expr {
     private String name;
     private ArrayList<Expr> params;
+    private Function function; // Looked up once here. Null when there is no function called name.
 
     public FuncExpr(String name, ArrayList<Expr> params) {
         assert params != null;
         this.name = name;
         this.params = params;
+        this.function = Function.forName(name);
     }
 
     public int getValue() {
@@ -25,136 +25,83 @@ public class FuncExpr implements Expr {
     }
 
     public Expr evaluate() {
-        ArrayList<Expr> finalValues = new ArrayList<Expr>();
-        for (Expr param : this.params) {
-            while(!(param instanceof BaseExpr)) {
+        // Only the first two values are ever used. Any more is an error, found after they're evaluated.
+        int a = 0;
+        int b = 0;
+        for (int i = 0; i < params.size(); i++) {
+            Expr param = params.get(i);
+            while (!(param instanceof BaseExpr)) {
                 param = param.evaluate();
             }
-            finalValues.add(param);
+            if (i == 0) {
+                a = param.getValue();
+            } else if (i == 1) {
+                b = param.getValue();
+            }
         }
 
-        switch (name) {
-            case "abs": return evaluateAbs(finalValues);
-            case "sqrt": return evaluateSqrt(finalValues);
-            case "pow": return evaluatePow(finalValues);
-            case "sumTo": return evaluateSumTo(finalValues);
-            case "gcf": return evaluateGreatestCommonFactor(finalValues);
-            case "isPrime": return evaluateIsPrime(finalValues);
-            case "hypot": return evaluateHypotenuse(finalValues);
-            case "toBinary": return evaluateToBinary8Bits(finalValues);
-            default:
-                throw new RuntimeException(name + " is not a valid function.");
+        if (function == null) {
+            throw new RuntimeException(Function.unknownFunctionMessage(name));
+        }
+        if (params.size() != function.getArity()) {
+            throw new RuntimeException(function.arityMessage(params.size()));
         }
+        return new BaseExpr(function.apply(a, b));
     }
 
     public Expr evaluateAbs(ArrayList<Expr> baseParams) {
-        if (baseParams.size() != 1) {
-            throw new RuntimeException("abs() takes in 1 parameter. Got " + baseParams.size());
-        }
-
-        return new BaseExpr(StudentCode.abs(baseParams.get(0).getValue()));
+        return apply(Function.ABS, baseParams);
     }
-    
-    public Expr evaluateSqrt(ArrayList<Expr> baseParams) {
-        if (baseParams.size() != 1) {
-            throw new RuntimeException("sqrt() takes in 1 parameter. Got " + baseParams.size());
-        }
-
-        if (baseParams.get(0).getValue() < 0) {
-            throw new RuntimeException("sqrt() expects a non-negative input!");
-        }
 
-        int sqrtNum = StudentCode.sqrt(baseParams.get(0).getValue());
-        return new BaseExpr((int) sqrtNum);
+    public Expr evaluateSqrt(ArrayList<Expr> baseParams) {
+        return apply(Function.SQRT, baseParams);
     }
 
     public Expr evaluatePow(ArrayList<Expr> baseParams) {
-        if (baseParams.size() != 2) {
-            throw new RuntimeException("pow() takes in 2 parameters. Got " + baseParams.size());
-        }
-
-        if (baseParams.get(1).getValue() < 0) {
-            throw new RuntimeException("pow() expects a non-negative power to raise base to.");
-        }
-
-        return new BaseExpr((int) StudentCode.pow(baseParams.get(0).getValue(), baseParams.get(1).getValue()));
+        return apply(Function.POW, baseParams);
     }
 
     public Expr evaluateSumTo(ArrayList<Expr> baseParams) {
-        if (baseParams.size() != 1) {
-            throw new RuntimeException("sumTo() takes in 1 parameter. Got " + baseParams.size());
-        }
-
-        int n = (baseParams.get(0).getValue());
-
-        if (n < 0) {
-            throw new RuntimeException("sumTo() expects a non-negative number!");
-        }
-
-        int sumTo = StudentCode.sumTo(n);
-        return new BaseExpr(sumTo);
+        return apply(Function.SUM_TO, baseParams);
     }
 
     public Expr evaluateGreatestCommonFactor(ArrayList<Expr> baseParams) {
-        if (baseParams.size() != 2) {
-            throw new RuntimeException("gcf() takes in 2 parameters. Got " + baseParams.size());
-        }
-
-        int a = baseParams.get(0).getValue();
-        int b = baseParams.get(1).getValue();
-
-        if (a < 0 || b < 0) {
-            throw new RuntimeException("gcf() expects both numbers to be non-negative!");
-        }
-
-        return new BaseExpr(StudentCode.greatestCommonFactor(a, b));
+        return apply(Function.GCF, baseParams);
     }
 
     public Expr evaluateIsPrime(ArrayList<Expr> baseParams) {
-        if (baseParams.size() != 1) {
-            throw new RuntimeException("isPrime() takes 1 parameter. Got " + baseParams.size());
-        }
-
-        int n = baseParams.get(0).getValue();
-
-        if (n <= 1) {
-            throw new RuntimeException("isPrime() expects an input > 1.");
-        }
-
-        return new BaseExpr(StudentCode.isPrime(n));
+        return apply(Function.IS_PRIME, baseParams);
     }
 
     public Expr evaluateHypotenuse(ArrayList<Expr> baseParams) {
-        if (baseParams.size() != 2) {   
-            throw new RuntimeException("hypot() takes 2 parameters. Got " + baseParams.size());
-        }
+        return apply(Function.HYPOT, baseParams);
+    }
 
-        int a = baseParams.get(0).getValue();
-        int b = baseParams.get(1).getValue();
+    public Expr evaluateToBinary8Bits(ArrayList<Expr> baseParams) {
+        return apply(Function.TO_BINARY, baseParams);
+    }
 
-        if (a <= 0 || b <= 0) {
-            throw new RuntimeException("hypot() expects both numbers to be positive!");
+    private static Expr apply(Function function, ArrayList<Expr> baseParams) {
+        if (baseParams.size() != function.getArity()) {
+            throw new RuntimeException(function.arityMessage(baseParams.size()));
         }
 
-        int hyp = StudentCode.hypotenuse(a, b);
-
-        return new BaseExpr((int) hyp);
+        int a = baseParams.get(0).getValue();
+        int b = function.getArity() == 2 ? baseParams.get(1).getValue() : 0;
+        return new BaseExpr(function.apply(a, b));
     }
 
-    public Expr evaluateToBinary8Bits(ArrayList<Expr> baseParams) {
-        if (baseParams.size() != 1) {
-            throw new RuntimeException("toBinary() expects 1 input. Got " + baseParams.size());
-        }
-
-        int dec = baseParams.get(0).getValue();
+    public String getName() {
+        return name;
+    }
 
-        if (dec < 0) {
-            throw new RuntimeException("toBinary() expects a non-negative number.");
-        }
+    // Null when name isn't a function.
+    public Function getFunction() {
+        return function;
+    }
 
-        
-        int bin = StudentCode.binary8Bits(dec);
-        return new BaseExpr(bin);
+    public ArrayList<Expr> getParams() {
+        return params;
     }
 
     public String toString() {
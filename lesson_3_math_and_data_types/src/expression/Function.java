@@ -0,0 +1,184 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package expression;
+
+import numbers.NumberTables;
+import studentcode.StudentCode;
+
+/**
+ * The functions the calculator knows, each with how many parameters it takes
+ * and the checks it makes before calling into StudentCode. FuncExpr and the
+ * compiled Program both call through here, so they fail the same way.
+ *
+ * Setting a FunctionCache with setCache() remembers results, so calls with
+ * the same inputs only run the student's code once. That is only right while
+ * the student's functions always give the same result for the same inputs,
+ * so it is off unless asked for.
+ *
+ * Likewise setNumberTables() answers isPrime() and gcf() from a prime sieve
+ * and a binary GCD instead of the student's code, for running over many
+ * numbers once the student's versions are known to work.
+ */
+public enum Function {
+    ABS("abs", 1, "abs() takes in 1 parameter. Got "),
+    SQRT("sqrt", 1, "sqrt() takes in 1 parameter. Got "),
+    POW("pow", 2, "pow() takes in 2 parameters. Got "),
+    SUM_TO("sumTo", 1, "sumTo() takes in 1 parameter. Got "),
+    GCF("gcf", 2, "gcf() takes in 2 parameters. Got "),
+    IS_PRIME("isPrime", 1, "isPrime() takes 1 parameter. Got "),
+    HYPOT("hypot", 2, "hypot() takes 2 parameters. Got "),
+    TO_BINARY("toBinary", 1, "toBinary() expects 1 input. Got ");
+
+    private final String name;
+    private final int arity;
+    private final String arityMessage;
+
+    private static volatile FunctionCache cache;
+    private static volatile NumberTables numberTables;
+
+    Function(String name, int arity, String arityMessage) {
+        this.name = name;
+        this.arity = arity;
+        this.arityMessage = arityMessage;
+    }
+
+    /**
+     * The function called name in an expression, or null if there is none.
+     */
+    public static Function forName(String name) {
+        for (Function function : values()) {
+            if (function.name.equals(name)) {
+                return function;
+            }
+        }
+        return null;
+    }
+
+    public static String unknownFunctionMessage(String name) {
+        return name + " is not a valid function.";
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getArity() {
+        return arity;
+    }
+
+    // The error for being called with the wrong number of parameters.
+    public String arityMessage(int numParams) {
+        return arityMessage + numParams;
+    }
+
+    /**
+     * Results are remembered in cache from now on, or not at all if it is
+     * null.
+     */
+    public static void setCache(FunctionCache cache) {
+        Function.cache = cache;
+    }
+
+    public static FunctionCache getCache() {
+        return cache;
+    }
+
+    /**
+     * isPrime() and gcf() use tables from now on, or the student's code if
+     * it is null.
+     */
+    public static void setNumberTables(NumberTables tables) {
+        numberTables = tables;
+    }
+
+    public static NumberTables getNumberTables() {
+        return numberTables;
+    }
+
+    /**
+     * Checks the inputs and calls the student's code. b is ignored by
+     * functions that take one parameter.
+     */
+    public int apply(int a, int b) {
+        check(a, b);
+        FunctionCache cache = Function.cache;
+        if (cache != null) {
+            return cache.get(this, a, arity == 1 ? 0 : b);
+        }
+        return call(a, b);
+    }
+
+    // Throws the calculator's error for inputs the function doesn't take. Also used by ExactEvaluator.
+    void check(long a, long b) {
+        switch (this) {
+            case SQRT:
+                if (a < 0) {
+                    throw new RuntimeException("sqrt() expects a non-negative input!");
+                }
+                break;
+            case POW:
+                if (b < 0) {
+                    throw new RuntimeException("pow() expects a non-negative power to raise base to.");
+                }
+                break;
+            case SUM_TO:
+                if (a < 0) {
+                    throw new RuntimeException("sumTo() expects a non-negative number!");
+                }
+                break;
+            case GCF:
+                if (a < 0 || b < 0) {
+                    throw new RuntimeException("gcf() expects both numbers to be non-negative!");
+                }
+                break;
+            case IS_PRIME:
+                if (a <= 1) {
+                    throw new RuntimeException("isPrime() expects an input > 1.");
+                }
+                break;
+            case HYPOT:
+                if (a <= 0 || b <= 0) {
+                    throw new RuntimeException("hypot() expects both numbers to be positive!");
+                }
+                break;
+            case TO_BINARY:
+                if (a < 0) {
+                    throw new RuntimeException("toBinary() expects a non-negative number.");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // The student's code, with inputs that already passed check().
+    int call(int a, int b) {
+        switch (this) {
+            case ABS:
+                return StudentCode.abs(a);
+            case SQRT:
+                return StudentCode.sqrt(a);
+            case POW:
+                return StudentCode.pow(a, b);
+            case SUM_TO:
+                return StudentCode.sumTo(a);
+            case GCF: {
+                NumberTables tables = numberTables;
+                return tables != null ? NumberTables.gcf(a, b) : StudentCode.greatestCommonFactor(a, b);
+            }
+            case IS_PRIME: {
+                NumberTables tables = numberTables;
+                if (tables != null) {
+                    return tables.isPrime(a) ? 1 : 0;
+                }
+                return StudentCode.isPrime(a);
+            }
+            case HYPOT:
+                return StudentCode.hypotenuse(a, b);
+            case TO_BINARY:
+                return StudentCode.binary8Bits(a);
+            default:
+                throw new RuntimeException(name + " is not a valid function.");
+        }
+    }
+}
@@ -0,0 +1,299 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package expression;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Remembers the results of Function calls, keyed on the function and its two
+ * int inputs, for when the same calls come up again and again. See
+ * Function.setCache().
+ *
+ * The cache holds at most a fixed number of results. It is split into
+ * stripes, each with its own StampedLock, so threads adding different keys
+ * rarely wait for each other. Lookups don't take the lock at all: they read
+ * optimistically and only retry under the read lock if a write got in the
+ * way. A stripe keeps everything in two int[]s: the heads of its hash
+ * table's chains, and its entries, each with its key, value and chain link
+ * side by side. Nothing is boxed, and nothing is allocated once the cache is
+ * full.
+ *
+ * A full stripe makes room with CLOCK, which is close to least recently
+ * used. Every hit marks its entry with a plain write that needs no lock. The
+ * clock hand sweeps the entries, clearing marks, and evicts the first entry
+ * it finds unmarked.
+ *
+ * The student's code runs outside the lock, so a slow call never holds up
+ * other threads. Two threads missing on the same key at once both run it,
+ * which is harmless for functions that always give the same result.
+ */
+public class FunctionCache {
+    private static final int MAX_STRIPES = 64;
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+
+    /**
+     * A cache that holds up to about capacity results.
+     */
+    public FunctionCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1. Got " + capacity);
+        }
+        // A power of two, with at least 16 entries each unless the whole cache is smaller
+        int numStripes = Integer.highestOneBit(Math.max(1, Math.min(MAX_STRIPES, capacity / 16)));
+        stripes = new Stripe[numStripes];
+        for (int i = 0; i < numStripes; i++) {
+            stripes[i] = new Stripe((capacity + numStripes - 1) / numStripes);
+        }
+        stripeShift = 32 - Integer.numberOfTrailingZeros(numStripes);
+    }
+
+    /**
+     * function.apply(a, b) without its checks, from the cache if it has been
+     * worked out before.
+     */
+    public int get(Function function, int a, int b) {
+        int hash = hash(function.ordinal(), a, b);
+        // High bits pick the stripe, low bits the bucket within it
+        Stripe stripe = stripes[stripeShift == 32 ? 0 : hash >>> stripeShift];
+        long cached = stripe.find(hash, function.ordinal(), a, b);
+        if (cached != Stripe.MISSING) {
+            return (int) cached;
+        }
+        int value = function.call(a, b);
+        stripe.put(hash, function.ordinal(), a, b, value);
+        return value;
+    }
+
+    private static int hash(int function, int a, int b) {
+        long h = (a & 0xffffffffL) | ((long) b << 32);
+        h = (h ^ function) * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 32;
+        return (int) h;
+    }
+
+    public long getHits() {
+        long hits = 0;
+        for (Stripe stripe : stripes) {
+            hits += stripe.hits.sum();
+        }
+        return hits;
+    }
+
+    public long getMisses() {
+        long misses = 0;
+        for (Stripe stripe : stripes) {
+            misses += stripe.misses.sum();
+        }
+        return misses;
+    }
+
+    public long getEvictions() {
+        long evictions = 0;
+        for (Stripe stripe : stripes) {
+            evictions += stripe.getEvictions();
+        }
+        return evictions;
+    }
+
+    // Hits over all lookups, or 0 before the first one.
+    public double getHitRate() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.getSize();
+        }
+        return size;
+    }
+
+    public int getCapacity() {
+        return stripes.length * stripes[0].capacity;
+    }
+
+    /**
+     * Forgets every result and resets the counts.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    public String toString() {
+        return String.format("FunctionCache(%d/%d entries, %d hits, %d misses, %d evictions)",
+                size(), getCapacity(), getHits(), getMisses(), getEvictions());
+    }
+
+    // One lock's worth of entries, numbered 0 to capacity - 1.
+    private static class Stripe {
+        private static final int NONE = -1;
+        // What find() returns when there is no entry, since every int value is possible
+        static final long MISSING = Long.MIN_VALUE;
+
+        // Entry e is entries[e * ENTRY, (e + 1) * ENTRY), so a lookup reads one cache line per entry
+        private static final int ENTRY = 8;
+        private static final int HASH = 0;
+        private static final int FUNCTION = 1;
+        private static final int A = 2;
+        private static final int B = 3;
+        private static final int VALUE = 4;
+        private static final int NEXT = 5; // The next entry in the same bucket, or NONE
+        private static final int REFERENCED = 6; // 1 if hit since the clock hand last passed
+
+        private final int capacity;
+        private final int[] entries;
+        // heads[hash & mask] is the first entry in that bucket
+        private final int[] heads;
+        private final int mask;
+
+        private final StampedLock lock = new StampedLock();
+        // Guarded by the write lock
+        private int size = 0;
+        private int hand = 0;
+        private long evictions = 0;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+            entries = new int[capacity * ENTRY];
+            heads = new int[Integer.highestOneBit(Math.max(1, capacity - 1)) << 1];
+            mask = heads.length - 1;
+            Arrays.fill(heads, NONE);
+        }
+
+        // The value for the key, or MISSING.
+        long find(int hash, int function, int a, int b) {
+            long stamp = lock.tryOptimisticRead();
+            int e = stamp != 0 ? entry(hash, function, a, b) : NONE;
+            long value = e != NONE ? entries[e * ENTRY + VALUE] : MISSING;
+            if (stamp == 0 || !lock.validate(stamp)) {
+                // A write happened while reading, so what was read may be torn
+                stamp = lock.readLock();
+                try {
+                    e = entry(hash, function, a, b);
+                    value = e != NONE ? entries[e * ENTRY + VALUE] : MISSING;
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            if (e == NONE) {
+                misses.increment();
+                return MISSING;
+            }
+            entries[e * ENTRY + REFERENCED] = 1;
+            hits.increment();
+            return value;
+        }
+
+        /**
+         * The entry holding the key, or NONE. Safe to run while a write is
+         * changing the chains, as every index in them stays in range and the
+         * walk stops after capacity steps. Only a validated result counts.
+         */
+        private int entry(int hash, int function, int a, int b) {
+            int[] entries = this.entries;
+            int e = heads[hash & mask];
+            for (int steps = 0; e != NONE && steps < capacity; steps++) {
+                int at = e * ENTRY;
+                if (entries[at + HASH] == hash && entries[at + A] == a && entries[at + B] == b
+                        && entries[at + FUNCTION] == function) {
+                    return e;
+                }
+                e = entries[at + NEXT];
+            }
+            return NONE;
+        }
+
+        void put(int hash, int function, int a, int b, int value) {
+            long stamp = lock.writeLock();
+            try {
+                if (entry(hash, function, a, b) == NONE) {
+                    insert(hash, function, a, b, value);
+                } // Otherwise another thread got here first
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void insert(int hash, int function, int a, int b, int value) {
+            int bucket = hash & mask;
+            int e = size < capacity ? size++ : evict();
+            int at = e * ENTRY;
+            entries[at + HASH] = hash;
+            entries[at + FUNCTION] = function;
+            entries[at + A] = a;
+            entries[at + B] = b;
+            entries[at + VALUE] = value;
+            entries[at + NEXT] = heads[bucket];
+            entries[at + REFERENCED] = 0;
+            heads[bucket] = e;
+        }
+
+        // CLOCK: clears marks until it finds an unmarked entry, then unlinks and returns it.
+        private int evict() {
+            while (entries[hand * ENTRY + REFERENCED] != 0) {
+                entries[hand * ENTRY + REFERENCED] = 0;
+                hand = hand + 1 == capacity ? 0 : hand + 1;
+            }
+            int victim = hand;
+            hand = hand + 1 == capacity ? 0 : hand + 1;
+
+            int bucket = entries[victim * ENTRY + HASH] & mask;
+            int after = entries[victim * ENTRY + NEXT];
+            if (heads[bucket] == victim) {
+                heads[bucket] = after;
+            } else {
+                int e = heads[bucket];
+                while (entries[e * ENTRY + NEXT] != victim) {
+                    e = entries[e * ENTRY + NEXT];
+                }
+                entries[e * ENTRY + NEXT] = after;
+            }
+            evictions++;
+            return victim;
+        }
+
+        int getSize() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long getEvictions() {
+            long stamp = lock.readLock();
+            try {
+                return evictions;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                Arrays.fill(heads, NONE);
+                size = 0;
+                hand = 0;
+                evictions = 0;
+                hits.reset();
+                misses.reset();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+}
@@ -47,6 +47,18 @@ public class StmtExpr implements Expr {
         }
     }
 
+    public Expr getLeft() {
+        return left;
+    }
+
+    public Expr getRight() {
+        return right;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
     public String toString() {
         return String.format("StmtExpr(%s, %s, %s)", left.toString(), right.toString(), type.name());
     }
@@ -44,6 +44,18 @@ public class TermExpr implements Expr {
         }   
     }
 
+    public Expr getLeft() {
+        return left;
+    }
+
+    public Expr getRight() {
+        return right;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
     public String toString() {
         return String.format("TermExpr(%s, %s, %s)", left.toString(), right.toString(), type.name());
     }
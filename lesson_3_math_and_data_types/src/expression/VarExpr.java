@@ -0,0 +1,42 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package expression;
+
+/**
+ * A named variable, like the a in hypot(a, b). The tree alone has no value
+ * for it, so evaluating one throws. Values are given when the expression is
+ * compiled and run, as an int[] where this variable's value is at index.
+ */
+public class VarExpr implements Expr {
+    private String name;
+    private int index;
+
+    public VarExpr(String name, int index) {
+        this.name = name;
+        this.index = index;
+    }
+
+    public int getValue() {
+        throw new RuntimeException(name + " has no value.");
+    }
+
+    public boolean isTerminal() {
+        return false;
+    }
+
+    public Expr evaluate() {
+        throw new RuntimeException(name + " has no value.");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String toString() {
+        return String.format("VarExpr(%s, %d)", name, index);
+    }
+}
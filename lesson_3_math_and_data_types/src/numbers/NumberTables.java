@@ -0,0 +1,174 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package numbers;
+
+import java.util.stream.IntStream;
+
+/**
+ * Fast answers for isPrime() and gcf(), for when they are called on many
+ * numbers. See Function.setNumberTables(), which makes the calculator use
+ * these in place of the student's code.
+ *
+ * isPrime() looks numbers up in a PrimeSieve up to a bound, and above it
+ * runs Miller-Rabin with the bases 2, 7 and 61. Those three bases give the
+ * right answer for every number below 4,759,123,141, so for every int.
+ * gcf() is Stein's binary GCD, which only shifts and subtracts.
+ *
+ * The batch methods fill an int[] the caller owns, 1 for prime and 0 for
+ * not like the calculator's isPrime(). Batches of at least PARALLEL_NUMBERS
+ * are split into chunks that run on every core.
+ */
+public class NumberTables {
+    public static final int DEFAULT_SIEVE_BOUND = 1 << 24;
+    public static final int PARALLEL_NUMBERS = 1 << 15;
+    public static final int CHUNK_NUMBERS = 1 << 13;
+
+    private final PrimeSieve sieve;
+
+    /**
+     * Tables that sieve the numbers up to sieveBound, the first time one is
+     * asked about.
+     */
+    public NumberTables(int sieveBound) {
+        sieve = new PrimeSieve(sieveBound);
+    }
+
+    public boolean isPrime(int n) {
+        if (n <= sieve.getBound()) {
+            return sieve.isPrime(n);
+        }
+        return isPrimeMillerRabin(n);
+    }
+
+    /**
+     * out[i] = 1 if numbers[i] is prime, 0 if not, for every i in numbers.
+     * Any int can be asked about. Nothing below 2 is prime.
+     */
+    public void isPrime(int[] numbers, int[] out) {
+        checkLength(out, numbers.length);
+        if (numbers.length >= PARALLEL_NUMBERS) {
+            sieve.build(); // Once, up front, rather than every chunk waiting on the first
+        }
+        forEachChunk(numbers.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                out[i] = isPrime(numbers[i]) ? 1 : 0;
+            }
+        });
+    }
+
+    /**
+     * out[i] = gcf(a[i], b[i]) for every i in a.
+     */
+    public void gcf(int[] a, int[] b, int[] out) {
+        checkLength(b, a.length);
+        checkLength(out, a.length);
+        forEachChunk(a.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                out[i] = gcf(a[i], b[i]);
+            }
+        });
+    }
+
+    public PrimeSieve getSieve() {
+        return sieve;
+    }
+
+    /**
+     * Deterministic Miller-Rabin. Writes n - 1 as d * 2^s with d odd, then n
+     * is prime exactly when, for each base a, a^d is 1 or one of a^d, a^2d,
+     * ... a^(2^(s-1) d) is n - 1, all mod n.
+     */
+    public static boolean isPrimeMillerRabin(int n) {
+        if (n < 2) {
+            return false;
+        }
+        if ((n & 1) == 0) {
+            return n == 2;
+        }
+        if (n % 3 == 0 || n % 5 == 0) {
+            return n == 3 || n == 5;
+        }
+        int s = Integer.numberOfTrailingZeros(n - 1);
+        int d = (n - 1) >>> s;
+        return passes(2, d, s, n) && passes(7, d, s, n) && passes(61, d, s, n);
+    }
+
+    // Whether n could be prime judging by base a. Always true when a is n itself.
+    private static boolean passes(int a, int d, int s, int n) {
+        if (a % n == 0) {
+            return true;
+        }
+        long x = powMod(a, d, n);
+        if (x == 1 || x == n - 1) {
+            return true;
+        }
+        for (int r = 1; r < s; r++) {
+            x = x * x % n;
+            if (x == n - 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // base^exponent mod n. Every product is of two numbers below 2^31, so fits in a long.
+    private static long powMod(long base, int exponent, int n) {
+        long result = 1;
+        base %= n;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result = result * base % n;
+            }
+            base = base * base % n;
+            exponent >>>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * The greatest common factor of two non-negative numbers, with gcf(0, 0)
+     * = 0. Takes out the factors of 2 they share, then keeps subtracting the
+     * smaller from the larger with every factor of 2 shifted off, until they
+     * are equal.
+     */
+    public static int gcf(int a, int b) {
+        if (a < 0 || b < 0) {
+            throw new IllegalArgumentException("gcf needs non-negative numbers. Got " + a + " and " + b);
+        }
+        if (a == 0 || b == 0) {
+            return a | b;
+        }
+        int shift = Integer.numberOfTrailingZeros(a | b);
+        a >>>= Integer.numberOfTrailingZeros(a);
+        while (b != 0) {
+            // min and abs rather than a compare and swap, which random inputs mispredict half the time
+            b >>>= Integer.numberOfTrailingZeros(b);
+            int difference = b - a;
+            a = Math.min(a, b);
+            b = Math.abs(difference);
+        }
+        return a << shift;
+    }
+
+    private interface Chunk {
+        void run(int from, int to);
+    }
+
+    private static void forEachChunk(int length, Chunk chunk) {
+        if (length < PARALLEL_NUMBERS) {
+            chunk.run(0, length);
+            return;
+        }
+        int chunks = (length + CHUNK_NUMBERS - 1) / CHUNK_NUMBERS;
+        IntStream.range(0, chunks).parallel().forEach(i -> {
+            int from = i * CHUNK_NUMBERS;
+            chunk.run(from, Math.min(from + CHUNK_NUMBERS, length));
+        });
+    }
+
+    private static void checkLength(int[] array, int length) {
+        if (array.length != length) {
+            throw new IllegalArgumentException("Expected arrays of length " + length + ". Got " + array.length);
+        }
+    }
+}
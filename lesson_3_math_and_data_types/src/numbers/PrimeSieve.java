@@ -0,0 +1,123 @@
+// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
+
+package numbers;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Which numbers up to a bound are prime, worked out once with a Sieve of
+ * Eratosthenes so that each isPrime() after that is one bit lookup.
+ *
+ * Only odd numbers are stored, one bit each, so the whole int range fits in
+ * 128 MB. Bit i is set when 2i + 1 is not prime. The sieve is built the
+ * first time it is used, in segments of SEGMENT_WORDS longs that are small
+ * enough to stay in cache. Each segment is crossed off on its own using the
+ * primes up to the square root of the bound. Segments share no words, so
+ * they run in parallel without locking.
+ */
+public class PrimeSieve {
+    public static final int SEGMENT_WORDS = 1 << 12; // 32 KB, 262144 odd numbers
+
+    private final int bound;
+    private volatile long[] composite;
+
+    /**
+     * A sieve for 0 to bound, inclusive. Nothing is worked out until the
+     * first isPrime() or build().
+     */
+    public PrimeSieve(int bound) {
+        if (bound < 0) {
+            throw new IllegalArgumentException("Bound must be non-negative. Got " + bound);
+        }
+        this.bound = bound;
+    }
+
+    /**
+     * Whether n is prime, for any n up to getBound(). Nothing below 2 is.
+     */
+    public boolean isPrime(int n) {
+        if (n > bound) {
+            throw new IllegalArgumentException(n + " is past the sieve's bound of " + bound);
+        }
+        if (n < 2) {
+            return false; // Negative odd numbers would otherwise index far past the bits
+        }
+        if ((n & 1) == 0) {
+            return n == 2;
+        }
+        long[] composite = build();
+        int bit = n >>> 1;
+        return (composite[bit >>> 6] & (1L << bit)) == 0;
+    }
+
+    /**
+     * Builds the sieve now if it hasn't been, and returns its bits.
+     */
+    public long[] build() {
+        long[] bits = composite;
+        if (bits == null) {
+            synchronized (this) {
+                bits = composite;
+                if (bits == null) {
+                    bits = sieve();
+                    composite = bits;
+                }
+            }
+        }
+        return bits;
+    }
+
+    public boolean isBuilt() {
+        return composite != null;
+    }
+
+    public int getBound() {
+        return bound;
+    }
+
+    private long[] sieve() {
+        long numBits = bound / 2 + 1; // The odd numbers 1, 3, ... up to bound
+        long[] bits = new long[(int) ((numBits + 63) / 64)];
+        int[] primes = oddPrimesUpTo((int) Math.sqrt(bound));
+        int segments = (bits.length + SEGMENT_WORDS - 1) / SEGMENT_WORDS;
+        IntStream.range(0, segments).parallel().forEach(segment -> {
+            int fromWord = segment * SEGMENT_WORDS;
+            crossOff(bits, primes, fromWord, Math.min(fromWord + SEGMENT_WORDS, bits.length));
+        });
+        bits[0] |= 1; // 1 is not prime
+        return bits;
+    }
+
+    // Sets the bit of every odd multiple of the primes, other than the primes themselves, in words [fromWord, toWord).
+    private static void crossOff(long[] bits, int[] primes, int fromWord, int toWord) {
+        long fromBit = (long) fromWord * 64;
+        long toBit = (long) toWord * 64;
+        long fromNumber = 2 * fromBit + 1;
+        for (int p : primes) {
+            long first = Math.max((long) p * p, (fromNumber + p - 1) / p * p);
+            if ((first & 1) == 0) {
+                first += p; // The even multiples aren't stored
+            }
+            for (long bit = first >>> 1; bit < toBit; bit += p) {
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+    }
+
+    // The odd primes up to n, by a plain sieve. n is at most 46340, the square root of the int range.
+    private static int[] oddPrimesUpTo(int n) {
+        boolean[] composite = new boolean[n + 1];
+        int count = 0;
+        int[] primes = new int[n / 2 + 1];
+        for (int i = 3; i <= n; i += 2) {
+            if (!composite[i]) {
+                primes[count++] = i;
+                for (int j = i * i; j <= n; j += 2 * i) {
+                    composite[j] = true;
+                }
+            }
+        }
+        return Arrays.copyOf(primes, count);
+    }
+}
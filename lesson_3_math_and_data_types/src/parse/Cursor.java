@@ -1,8 +0,0 @@
-// © Sebastian Lopez-Cot 2025. Licensed CC BY-NC-SA 4.0.
-
-package parse;
-
-public class Cursor {
-    public int position = 0;
-    public int marker = 0;
-}
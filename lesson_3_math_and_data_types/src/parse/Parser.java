@@ -3,10 +3,8 @@
 package parse;
 
 import java.util.ArrayList;
-import java.util.Optional;
-import java.util.Stack;
-
-import javax.swing.text.html.Option;
+import java.util.HashMap;
+import java.util.List;
 
 import expression.BaseExpr;
 import expression.ErrorExpr;
@@ -14,355 +12,242 @@ import expression.Expr;
 import expression.FuncExpr;
 import expression.StmtExpr;
 import expression.TermExpr;
-
+import expression.VarExpr;
+
+/**
+ * Turns calculator input into an Expr tree. The grammar is
+ *
+ *   stmts  := terms (('+' | '-') terms)*
+ *   terms  := base (('*' | '/') base)*
+ *   base   := '(' stmts ')' | number | name '(' stmts (',' stmts)* ')' | name
+ *
+ * and every operator groups to the left, so 1-2-3 is (1-2)-3. A name with no
+ * '(' after it is a variable. Each different variable is numbered in the
+ * order it first appears, from 0, and getVariables() lists them in that
+ * order, so a + b*a has a as 0 and b as 1. Spaces and tabs between tokens
+ * are ignored.
+ *
+ * The parser reads the text once, left to right, one token ahead and never
+ * backing up. Binary operators are parsed by precedence climbing: after each
+ * operand it keeps taking operators of at least the current precedence, and
+ * only recurses for the right side of a tighter one. So every character is
+ * looked at a constant number of times and parsing is linear in the length of
+ * the input. Nothing is allocated besides the tree itself and the names
+ * in it.
+ */
 public class Parser {
-    private String text;
-
-    private Stack<Cursor> cursors;
-    
-    public Parser(String text) {
-        this.text = text;
-        this.cursors = new Stack<Cursor>();
-    }
+    // Token kinds besides the single character ones, which are the character itself
+    private static final int END = -1;
+    private static final int NUMBER = -2;
+    private static final int NAME = -3;
+    private static final int UNKNOWN = -4;
 
-    public Expr parse() {
-        Optional<Expr> expr = parseStmtExprs();
+    private static final int ADDITIVE = 1; // + -
+    private static final int MULTIPLICATIVE = 2; // * /
 
-        if (cursors.peek().position <= text.length() - 1) {
-            return new ErrorExpr("Invalid expression. Could not parse.");
-        }
+    private final char[] text;
+    private final int end;
 
-        if (expr.isEmpty()) {
-            return new ErrorExpr("Empty expression. Could not parse.");
-        }
+    // The current token is text[tokenStart, position)
+    private int position;
+    private int token;
+    private int tokenStart;
 
-        System.out.println(expr.get().toString());
+    // Set when an error is found, so every caller up the recursion can give up
+    private String error;
 
-        return expr.get();
-    }
+    private final ArrayList<String> variables = new ArrayList<String>();
+    private final HashMap<String, Integer> variableIndex = new HashMap<String, Integer>();
 
-    public boolean allCharsRead() {
-        return cursors.peek().position > text.length();
-    }
-
-    public Optional<Character> nextChar() {
-        if (cursors.peek().position > text.length() - 1) {
-            cursors.peek().position++;
-            return Optional.empty();
-        } else {
-            char c = text.charAt(cursors.peek().position);
-            cursors.peek().position++;
-            return Optional.of(c);
-        }
+    public Parser(String text) {
+        this(text.toCharArray(), 0, text.length());
     }
 
-    public void createScopedCursor() {
-        if (cursors.size() == 0) {
-            cursors.push(new Cursor());
-            return;
+    /**
+     * Parses text[start, end) without copying it.
+     */
+    public Parser(char[] text, int start, int end) {
+        if (start < 0 || end > text.length || start > end) {
+            throw new IllegalArgumentException(
+                    "Range [" + start + ", " + end + ") is outside text of length " + text.length);
         }
-
-        Cursor current = cursors.peek();
-        Cursor newCursor = new Cursor();
-        newCursor.position = current.position;
-        newCursor.marker = current.position;
-        cursors.push(newCursor);
-    }
-
-    public void backtrackCursor() {
-        cursors.peek().position = cursors.peek().marker;
-    }
-
-    public void setMarker() {
-        cursors.peek().marker = cursors.peek().position;
+        this.text = text;
+        this.end = end;
+        this.position = start;
     }
 
-    public Optional<Expr> parseBaseExpr() {
-        Optional<Expr> parenExpr = parseParenExpr();
-        if (!parenExpr.isEmpty()) {
-            return parenExpr;
+    public Expr parse() {
+        next();
+        if (token == END) {
+            return new ErrorExpr("Empty expression. Could not parse.");
         }
 
-        Optional<Expr> num = parseNumber();
-        if (!num.isEmpty()) {
-            setMarker();
-            return num;
+        Expr expr = parseStmts();
+        if (error != null) {
+            return new ErrorExpr(error);
         }
-
-        Optional<Expr> funcExpr = parseFuncExpr();
-        if (!funcExpr.isEmpty()) {
-            return funcExpr;
+        if (token != END) {
+            return new ErrorExpr("Invalid expression. Could not parse.");
         }
-        
-        backtrackCursor();
-        return Optional.empty();
+        return expr;
     }
 
-    public Optional<Expr> parseFuncExpr() {
-        Optional<String> funcName = parseFuncName();
-        if (funcName.isEmpty()) {
-            backtrackCursor();
-            return Optional.empty();
-        }
-
-        Optional<Character> c = nextChar();
-        if (c.isEmpty()) {
-            backtrackCursor();
-            return Optional.empty();
-        }
-
-        if (c.get() != '(') {
-            backtrackCursor();
-            return Optional.empty();
-        }
-
-        ArrayList<Expr> funcParams = parseFuncParams();
-        if (funcParams.isEmpty()) {
-            cursors.pop();
-            backtrackCursor();
-            return Optional.empty();
-        }
-
-        c = nextChar();
-        if (c.isEmpty()) {
-            backtrackCursor();
-            return Optional.empty();
-        }
-
-        if (c.get() != ')') {
-            backtrackCursor();
-            return Optional.empty();
-        }
-        setMarker();        
+    /**
+     * The names of the variables in what parse() read, in order of their
+     * index.
+     */
+    public List<String> getVariables() {
+        return variables;
+    }
 
-        return Optional.of(new FuncExpr(funcName.get(), funcParams));
+    private Expr parseStmts() {
+        return parseBinary(parseBase(), ADDITIVE);
     }
 
-    public Optional<String> parseFuncName() {
-        String buffer = "";
-        Optional<Character> c;
-        while (true) {
-            c = nextChar();
-            if (c.isEmpty()) {
-                cursors.peek().position--;
-                break;
+    // Precedence climbing: folds in every operator of at least minPrecedence.
+    private Expr parseBinary(Expr left, int minPrecedence) {
+        while (error == null && precedence(token) >= minPrecedence) {
+            int operator = token;
+            int operatorPrecedence = precedence(operator);
+            next();
+            Expr right = parseBase();
+            while (error == null && precedence(token) > operatorPrecedence) {
+                right = parseBinary(right, operatorPrecedence + 1);
             }
-
-            if (!isAlpha(c.get())) {
-                cursors.peek().position--;
-                break;
+            if (error != null) {
+                return null;
             }
-
-            buffer += c.get();
+            left = combine(left, operator, right);
         }
+        return left;
+    }
 
-        if (buffer.length() > 0) {
-            return Optional.of(buffer);
-        } else {
-            return Optional.empty();
+    private static int precedence(int token) {
+        switch (token) {
+            case '+':
+            case '-':
+                return ADDITIVE;
+            case '*':
+            case '/':
+                return MULTIPLICATIVE;
+            default:
+                return 0;
         }
     }
 
-    public ArrayList<Expr> parseFuncParams() {
-        ArrayList<Expr> params = new ArrayList<Expr>();
-
-        Optional<Expr> lastParam = parseStmtExprs();
-        if (lastParam.isEmpty()) {
-            return params;
+    private static Expr combine(Expr left, int operator, Expr right) {
+        switch (operator) {
+            case '+':
+                return new StmtExpr(left, right, StmtExpr.Type.ADD);
+            case '-':
+                return new StmtExpr(left, right, StmtExpr.Type.SUBTRACT);
+            case '*':
+                return new TermExpr(left, right, TermExpr.Type.MULTIPLY);
+            default:
+                return new TermExpr(left, right, TermExpr.Type.DIVIDE);
         }
-        params.add(lastParam.get());
+    }
 
-        while (!allCharsRead()) {
-            Optional<Character> c = nextChar();
-            if (c.get() != ',') {
-                cursors.peek().position--;
-                return params;
+    private Expr parseBase() {
+        switch (token) {
+            case '(': {
+                next();
+                Expr inner = parseStmts();
+                expect(')');
+                return inner;
             }
-
-            Optional<Expr> nextParam = parseStmtExprs();
-            if (nextParam.equals(lastParam)) {
-                return params;
+            case NUMBER:
+                return parseNumber();
+            case NAME: {
+                String name = new String(text, tokenStart, position - tokenStart);
+                next();
+                if (token != '(') {
+                    return variable(name);
+                }
+                next();
+                ArrayList<Expr> params = new ArrayList<Expr>();
+                params.add(parseStmts());
+                while (error == null && token == ',') {
+                    next();
+                    params.add(parseStmts());
+                }
+                expect(')');
+                return error == null ? new FuncExpr(name, params) : null;
             }
-            lastParam = nextParam;
-            params.add(nextParam.get());
+            default:
+                fail();
+                return null;
         }
-
-        return params;
     }
 
-    public Optional<Expr> parseParenExpr() {
-        Optional<Character> c = nextChar();
-        if (c.isEmpty()) {
-            backtrackCursor();
-            return Optional.empty();
-        }
-
-        if (c.get() != '(') {
-            backtrackCursor();
-            return Optional.empty();
-        }
-
-        Optional<Expr> stmtExprs = parseStmtExprs();
-        if (stmtExprs.isEmpty()) {
-            cursors.pop();
-            backtrackCursor();
-            return Optional.empty();
+    private Expr variable(String name) {
+        Integer index = variableIndex.get(name);
+        if (index == null) {
+            index = variables.size();
+            variables.add(name);
+            variableIndex.put(name, index);
         }
-
-        c = nextChar();
-        if (c.isEmpty()) {
-            backtrackCursor();
-            return Optional.empty();
-        }
-
-        if (c.get() != ')') {
-            backtrackCursor();
-            return Optional.empty();
-        }
-        setMarker();
-
-        return stmtExprs;
+        return new VarExpr(name, index);
     }
 
-    public Optional<Expr> parseStmtExprs() {
-        createScopedCursor();
-        Optional<Expr> lastTerm = parseStmtExpr();
-        if (lastTerm.isEmpty()) {
-            return Optional.empty();
-        }
-
-        while (!allCharsRead()) {
-            Optional<Expr> nextTerm = parseStmtExpr(lastTerm);
-            if (nextTerm.equals(lastTerm)) {
-                return lastTerm;
+    private Expr parseNumber() {
+        int value = 0;
+        for (int i = tokenStart; i < position; i++) {
+            int digit = Character.digit(text[i], 10);
+            if (value > (Integer.MAX_VALUE - digit) / 10) {
+                fail("Number is too big. Could not parse.");
+                return null;
             }
-            lastTerm = nextTerm;
+            value = value * 10 + digit;
         }
-
-        return lastTerm;
-    }
-
-    public Optional<Expr> parseStmtExpr() {
-        return parseStmtExpr(Optional.empty());
+        next();
+        return new BaseExpr(value);
     }
 
-    public Optional<Expr> parseStmtExpr(Optional<Expr> inputLeft) {
-        Optional<Expr> left;
-        if (!inputLeft.isEmpty()) {
-            left = inputLeft;
-        } else {
-            left = parseTermExprs();
-            if (left.isEmpty()) {
-                backtrackCursor();
-                return Optional.empty();
-            }
-            setMarker();
-        }
-
-        Optional<Character> c = nextChar();
-        if (c.isEmpty()) {
-            return left;
-        }
-
-        StmtExpr.Type type;
-        if (c.get() == '+') {
-            type = StmtExpr.Type.ADD;
-        } else if (c.get() == '-') {
-            type = StmtExpr.Type.SUBTRACT;
-        } else {
-            backtrackCursor();
-            return left;
-        }
-        setMarker();
-
-        Optional<Expr> right = parseTermExprs();
-        if (right.isEmpty()) {
-            backtrackCursor();
-            return Optional.empty();
+    private void expect(int kind) {
+        if (error == null && token != kind) {
+            fail();
         }
-        setMarker();
-
-        return Optional.of(new StmtExpr(left.get(), right.get(), type));
+        next();
     }
 
-    public Optional<Expr> parseTermExprs() {
-        Optional<Expr> lastTerm = parseTermExpr();
-        if (lastTerm.isEmpty()) {
-            return Optional.empty();
-        }
-
-        while (!allCharsRead()) {
-            Optional<Expr> nextTerm = parseTermExpr(lastTerm);
-            if (nextTerm.equals(lastTerm)) {
-                return lastTerm;
-            }
-            lastTerm = nextTerm;
-        }
-
-        return lastTerm;
+    private void fail() {
+        fail("Invalid expression. Could not parse.");
     }
 
-    public Optional<Expr> parseTermExpr() {
-        return parseTermExpr(Optional.empty());
-    } 
-
-    public Optional<Expr> parseTermExpr(Optional<Expr> inputLeft) {
-        Optional<Expr> left;
-        if (!inputLeft.isEmpty()) {
-            left = inputLeft;
-        } else {
-            left = parseBaseExpr();
-            if (left.isEmpty()) {
-                return Optional.empty();
-            }
-        }
-
-        Optional<Character> c = nextChar();
-        if (c.isEmpty()) {
-            return left;
+    private void fail(String message) {
+        if (error == null) {
+            error = message;
         }
+        token = END;
+        position = end;
+    }
 
-        TermExpr.Type type;
-        if (c.get() == '*') {
-            type = TermExpr.Type.MULTIPLY;
-        } else if (c.get() == '/') {
-            type = TermExpr.Type.DIVIDE;
-        } else {
-            backtrackCursor();
-            return left;
+    // Reads the next token into token and tokenStart, skipping spaces and tabs before it.
+    private void next() {
+        while (position < end && (text[position] == ' ' || text[position] == '\t')) {
+            position++;
         }
-        setMarker();
-
-        Optional<Expr> right = parseBaseExpr();
-        if (right.isEmpty()) {
-            return Optional.empty();
+        tokenStart = position;
+        if (position >= end) {
+            token = END;
+            return;
         }
-
-        return Optional.of(new TermExpr(left.get(), right.get(), type));
-    }
-    
-    public Optional<Expr> parseNumber() {
-        String buffer = "";
-        Optional<Character> c;
-        while (true) {
-            c = nextChar();
-            if (c.isEmpty()) {
-                cursors.peek().position--;
-                break;
+        char c = text[position++];
+        if (isDigit(c)) {
+            while (position < end && isDigit(text[position])) {
+                position++;
             }
-
-            if (!isDigit(c.get())) {
-                cursors.peek().position--;
-                break;
+            token = NUMBER;
+        } else if (isAlpha(c)) {
+            while (position < end && isAlpha(text[position])) {
+                position++;
             }
-
-            buffer += c.get();
-        }
-
-        if (buffer.length() > 0) {
-            return Optional.of(new BaseExpr(Integer.parseInt(buffer)));
+            token = NAME;
+        } else if ("+-*/(),".indexOf(c) >= 0) {
+            token = c;
         } else {
-            return Optional.empty();
+            token = UNKNOWN;
         }
     }
 